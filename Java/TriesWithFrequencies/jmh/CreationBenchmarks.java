@@ -0,0 +1,98 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//! @description Benchmarks of the trie creation functions.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreationBenchmarks {
+
+    //! @description Fresh copies of the tries for the functions that change their arguments.
+    @State(Scope.Thread)
+    public static class Copies {
+        public Trie trie;
+        public Trie otherTrie;
+
+        @Setup(Level.Invocation)
+        public void setup( TrieCorpus corpus ) {
+            trie = corpus.trie.clone();
+            otherTrie = corpus.otherTrie.clone();
+        }
+    }
+
+    @Benchmark
+    public Trie create( TrieCorpus corpus ) {
+        return TrieFunctions.create(corpus.splitWords);
+    }
+
+    @Benchmark
+    public Trie createParallel( TrieCorpus corpus ) {
+        return TrieFunctions.createParallel(corpus.splitWords);
+    }
+
+    @Benchmark
+    public Trie createBySplit( TrieCorpus corpus ) {
+        return TrieFunctions.createBySplit(corpus.words, "");
+    }
+
+    @Benchmark
+    public Trie insert( TrieCorpus corpus, Copies copies ) {
+        Trie res = copies.trie;
+        for (List<String> w : corpus.queries) {
+            res = TrieFunctions.insert(res, w);
+        }
+        return res;
+    }
+
+    @Benchmark
+    public Trie insertInPlace( TrieCorpus corpus, Copies copies ) {
+        Trie res = copies.trie;
+        for (List<String> w : corpus.queries) {
+            TrieFunctions.insertInPlace(res, w);
+        }
+        return res;
+    }
+
+    @Benchmark
+    public Trie merge( Copies copies ) {
+        return TrieFunctions.merge(copies.trie, copies.otherTrie);
+    }
+}
@@ -0,0 +1,83 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//! @description Benchmarks of the path, probability, and random choice functions.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathBenchmarks {
+
+    //! Number of paths for topRootToLeafPaths and randomChoice.
+    @Param({"10"})
+    public int k;
+
+    @Benchmark
+    public Object rootToLeafPaths( TrieCorpus corpus ) {
+        return TrieFunctions.rootToLeafPaths(corpus.trie);
+    }
+
+    //! The original version that sorts all root-to-leaf paths.
+    @Benchmark
+    public Object topRootToLeafPathsSorted( TrieCorpus corpus ) {
+        return TrieFunctions.topRootToLeafPaths(corpus.probTrie, k);
+    }
+
+    //! The best-first search version.
+    @Benchmark
+    public Object topRootToLeafPaths( TrieCorpus corpus ) {
+        return TrieFunctions.topRootToLeafPaths(corpus.probTrie, k, 0.0);
+    }
+
+    @Benchmark
+    public Object nodeProbabilities( TrieCorpus corpus ) {
+        return TrieFunctions.nodeProbabilities(corpus.trie);
+    }
+
+    @Benchmark
+    public Object leafProbabilities( TrieCorpus corpus ) {
+        return TrieFunctions.leafProbabilities(corpus.probTrie);
+    }
+
+    @Benchmark
+    public Object randomChoice( TrieCorpus corpus ) {
+        return TrieFunctions.randomChoice(corpus.trie, k, true);
+    }
+}
@@ -0,0 +1,82 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//! @description Benchmarks of the shrinking, removal, and pruning functions.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RemovalBenchmarks {
+
+    @Benchmark
+    public Trie shrink( TrieCorpus corpus ) {
+        return TrieFunctions.shrink(corpus.trie);
+    }
+
+    @Benchmark
+    public Trie removeByThreshold( TrieCorpus corpus ) {
+        return TrieFunctions.removeByThreshold(corpus.trie, 3, "OTHER");
+    }
+
+    @Benchmark
+    public Trie removeByKeyRegex( TrieCorpus corpus ) {
+        return TrieFunctions.removeByKeyRegex(corpus.trie, "[aeiou]", "OTHER");
+    }
+
+    @Benchmark
+    public Trie removeByParetoFraction( TrieCorpus corpus ) {
+        return TrieFunctions.removeByParetoFraction(corpus.trie, 0.8, "OTHER");
+    }
+
+    @Benchmark
+    public Trie prune( TrieCorpus corpus ) {
+        return TrieFunctions.prune(corpus.trie, 4);
+    }
+
+    @Benchmark
+    public Trie reductionPipeline( TrieCorpus corpus ) {
+        return new TrieReduction()
+                .removeByThreshold(3, true, "OTHER")
+                .removeByKeyRegex("[aeiou]", "OTHER")
+                .removeByParetoFraction(0.8, true, "OTHER")
+                .prune(4)
+                .apply(corpus.trie)
+                .getTrie();
+    }
+}
@@ -0,0 +1,97 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//! @description Benchmarks of the retrieval functions over the query words of the corpus.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RetrievalBenchmarks {
+
+    @Benchmark
+    public void position( TrieCorpus corpus, Blackhole bh ) {
+        for (List<String> w : corpus.queries) {
+            bh.consume(TrieFunctions.position(corpus.trie, w));
+        }
+    }
+
+    @Benchmark
+    public void contains( TrieCorpus corpus, Blackhole bh ) {
+        for (List<String> w : corpus.queries) {
+            bh.consume(TrieFunctions.contains(corpus.trie, w));
+        }
+    }
+
+    @Benchmark
+    public Object mapPosition( TrieCorpus corpus ) {
+        return TrieFunctions.mapPosition(corpus.trie, corpus.queries);
+    }
+
+    @Benchmark
+    public Object mapRetrieve( TrieCorpus corpus ) {
+        return TrieFunctions.mapRetrieve(corpus.trie, corpus.queries);
+    }
+
+    @Benchmark
+    public Object mapContains( TrieCorpus corpus ) {
+        return TrieFunctions.mapContains(corpus.trie, corpus.queries);
+    }
+
+    @Benchmark
+    public Object mapIsKey( TrieCorpus corpus ) {
+        return TrieFunctions.mapIsKey(corpus.trie, corpus.queries);
+    }
+
+    @Benchmark
+    public Object mapHasCompleteMatch( TrieCorpus corpus ) {
+        return TrieFunctions.mapHasCompleteMatch(corpus.trie, corpus.queries);
+    }
+
+    @Benchmark
+    public Object batchContains( TrieCorpus corpus ) {
+        return TrieFunctions.batchContains(corpus.trie, corpus.queries);
+    }
+
+    @Benchmark
+    public Object batchPositionLengths( TrieCorpus corpus ) {
+        return TrieFunctions.batchPositionLengths(corpus.trie, corpus.queries);
+    }
+}
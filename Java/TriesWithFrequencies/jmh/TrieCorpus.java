@@ -0,0 +1,131 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+//! @description Synthetic corpora for the benchmarks.
+//! @details The words are strings of characters from an alphabet of a given size;
+//! the word lengths are uniform from 1 to depth and the characters follow a Zipf distribution
+//! with a given exponent (skew), 0 for uniform. The corpora are deterministic (fixed seed).
+//! The parameters can be changed from the command line, e.g. -p size=1000000 -p alphabet=4,256 .
+@State(Scope.Benchmark)
+public class TrieCorpus {
+
+    //! Number of words.
+    @Param({"10000", "100000"})
+    public int size;
+
+    //! Number of distinct characters.
+    @Param({"26"})
+    public int alphabet;
+
+    //! Maximum word length.
+    @Param({"12"})
+    public int depth;
+
+    //! Zipf exponent of the character distribution.
+    @Param({"0.0", "1.0"})
+    public double skew;
+
+    public long seed = 2017;
+
+    //! The words, the words split into characters, and a trie made from them.
+    public List<String> words;
+    public List<List<String>> splitWords;
+    public Trie trie;
+
+    //! The same trie with node probabilities.
+    public Trie probTrie;
+
+    //! Words from the corpus and from a different corpus (mostly misses), half and half.
+    public List<List<String>> queries;
+
+    //! A trie made from a different corpus of the same size, for merging.
+    public Trie otherTrie;
+
+    @Setup
+    public void setup() {
+        SplittableRandom rand = new SplittableRandom(seed);
+
+        words = makeWords(size, rand);
+        splitWords = TrieFunctions.splitWords(words, "");
+        trie = TrieFunctions.create(splitWords);
+        probTrie = TrieFunctions.nodeProbabilities(trie);
+
+        List<List<String>> others = TrieFunctions.splitWords(makeWords(size, rand), "");
+        otherTrie = TrieFunctions.create(others);
+
+        int nq = Math.min(size, 10000);
+        queries = new ArrayList<>(nq);
+        for (int i = 0; i < nq; i++) {
+            queries.add(i % 2 == 0 ? splitWords.get(rand.nextInt(size)) : others.get(rand.nextInt(size)));
+        }
+    }
+
+    //! @description The character with a given index.
+    public static char symbol( int i ) {
+        return i < 26 ? (char) ('a' + i) : (char) (0x100 + i);
+    }
+
+    //! @description Makes random words according to the parameters.
+    public List<String> makeWords( int n, SplittableRandom rand ) {
+        double[] cumWeights = new double[alphabet];
+        double total = 0;
+        for (int i = 0; i < alphabet; i++) {
+            total += Math.pow(i + 1, -skew);
+            cumWeights[i] = total;
+        }
+
+        List<String> res = new ArrayList<>(n);
+        StringBuilder sb = new StringBuilder(depth);
+        for (int k = 0; k < n; k++) {
+            sb.setLength(0);
+            int len = 1 + rand.nextInt(depth);
+            for (int j = 0; j < len; j++) {
+                int i = Arrays.binarySearch(cumWeights, rand.nextDouble() * total);
+                sb.append(symbol(i < 0 ? Math.min(-i - 1, alphabet - 1) : i));
+            }
+            res.add(sb.toString());
+        }
+        return res;
+    }
+}
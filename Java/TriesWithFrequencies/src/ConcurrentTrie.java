@@ -0,0 +1,181 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+
+//! @description A trie into which many threads can insert concurrently.
+//! @details The children are kept in ConcurrentHashMap objects and the node values in DoubleAdder objects,
+//! so insertions do not lock and the updates of frequently used prefixes are spread over adder cells.
+//! Since a ConcurrentTrie object is a Trie object the read-only functions of TrieFunctions
+//! (position, retrieve, contains, rootToLeafPaths, etc.) can be applied to it, also during insertion.
+//! Functions that change the tries they are given, like merge, should not be used on concurrent tries;
+//! TrieFunctions.insertInPlace is delegated to insert. A plain Trie copy is obtained with clone().
+public class ConcurrentTrie extends Trie {
+
+    private static final VarHandle CHILDREN;
+
+    static {
+        try {
+            CHILDREN = MethodHandles.lookup().findVarHandle(Trie.class, "children", Map.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    protected final DoubleAdder adder = new DoubleAdder();
+
+    public ConcurrentTrie( String key ) {
+        this.key = key;
+    }
+
+    public ConcurrentTrie( String key, double value ) {
+        this.key = key;
+        this.adder.add(value);
+    }
+
+    @Override
+    public double getDoubleValue() {
+        return adder.sum();
+    }
+
+    //! @description Sets the value of the node.
+    //! @details Not atomic with respect to concurrent insertions.
+    @Override
+    public void setDoubleValue( double value ) {
+        adder.reset();
+        adder.add(value);
+    }
+
+    @Override
+    public void setValue( Double value ) {
+        setDoubleValue(value == null ? 0 : value);
+    }
+
+    @Override
+    public boolean hasValue() {
+        return true;
+    }
+
+    //! @description Adds a number to the value of the node.
+    public void addValue( double value ) {
+        adder.add(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map<String, Trie> getChildren() {
+        return (Map<String, Trie>) CHILDREN.getAcquire(this);
+    }
+
+    //! @description Sets the children of the node; the map is copied into a concurrent map if needed.
+    //! @details The children have to be ConcurrentTrie objects, otherwise IllegalArgumentException is thrown.
+    @Override
+    public void setChildren( Map<String, Trie> children ) {
+        if (children != null) {
+            for (Trie ch : children.values()) {
+                if (!(ch instanceof ConcurrentTrie)) {
+                    throw new IllegalArgumentException("The children of a ConcurrentTrie have to be ConcurrentTrie objects.");
+                }
+            }
+        }
+        if (children != null && !(children instanceof ConcurrentHashMap)) {
+            children = new ConcurrentHashMap<>(children);
+        }
+        CHILDREN.setRelease(this, children);
+    }
+
+    //! @description Finds the child with a given key; if there is no such child a new one with value 0 is added.
+    //! @param k key
+    public ConcurrentTrie childOrAdd( String k ) {
+        Map<String, Trie> chs = getChildren();
+
+        if (chs == null) {
+            Map<String, Trie> newChildren = new ConcurrentHashMap<>();
+            if (CHILDREN.compareAndSet(this, null, newChildren)) {
+                chs = newChildren;
+            } else {
+                chs = getChildren();
+            }
+        }
+
+        Trie ch = chs.get(k);
+        if (ch == null) {
+            ConcurrentTrie newCh = new ConcurrentTrie(k);
+            ch = chs.putIfAbsent(k, newCh);
+            if (ch == null) {
+                ch = newCh;
+            }
+        }
+
+        return (ConcurrentTrie) ch;
+    }
+
+    //! @description Inserts a "word" (a list of strings) into the trie. (Thread-safe.)
+    //! @param word a list of strings
+    //! @param value the value to be added to each node of the word path
+    //! @param bottomVal the value to be added to the last node of the word path
+    public void insert( List<String> word, double value, double bottomVal ) {
+        if (word == null || word.isEmpty()) {
+            return;
+        }
+
+        ConcurrentTrie node = this;
+        node.addValue(value);
+
+        int n = word.size();
+        for (int i = 0; i < n; i++) {
+            node = node.childOrAdd(word.get(i));
+            node.addValue(i == n - 1 ? bottomVal : value);
+        }
+    }
+
+    //! @description Inserts a "word" (a list of strings) into the trie. (Thread-safe.)
+    //! @param word a list of strings
+    public void insert( List<String> word ) {
+        insert(word, 1.0, 1.0);
+    }
+
+    //! @description Creates a concurrent trie from a given list of list of strings. (In parallel.)
+    //! @param words a list of lists of strings
+    public static ConcurrentTrie create( List<List<String>> words ) {
+        ConcurrentTrie res = new ConcurrentTrie("");
+        words.parallelStream().forEach(res::insert);
+        return res;
+    }
+}
@@ -0,0 +1,779 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.util.*;
+
+//! @description A read-only, array based trie made from a Trie object.
+//! @details The nodes are numbered in breadth-first order, hence the children of each node
+//! occupy a contiguous range of node indexes. The children of a node are sorted by key,
+//! so child lookup is a binary search. The node keys are indexes into a table of the distinct keys.
+public class FrozenTrie {
+
+    //! @description The index of the root node.
+    public static final int ROOT = 0;
+
+    //! @description Value returned by the lookup functions when there is no such node.
+    public static final int NO_NODE = -1;
+
+    //! The children of node i are the nodes childOffsets[i], ..., childOffsets[i+1]-1 .
+    protected int[] childOffsets;
+
+    //! Indexes in the symbols array; -1 stands for a null key.
+    protected int[] keyIds;
+
+    //! @description Precision modes for storing the node values.
+    //! @details DOUBLE and FLOAT are meant for probability tries, COUNT for frequency tries with whole counts.
+    public enum Precision { DOUBLE, FLOAT, COUNT }
+
+    protected Precision precision;
+
+    //! Only one of the value arrays is used -- the one corresponding to the precision mode.
+    protected double[] values;
+    protected float[] floatValues;
+    protected long[] countValues;
+
+    //! The distinct keys of the trie.
+    protected String[] symbols;
+
+    //! The children of node i ordered by descending values are the nodes valueOrder[childOffsets[i]], ...,
+    //! valueOrder[childOffsets[i+1]-1]; null until buildValueOrder is called.
+    protected volatile int[] valueOrder;
+
+    //! @description For making frozen tries directly from arrays, e.g. when loading snapshots.
+    protected FrozenTrie() { }
+
+    //! @description Freezes a given trie.
+    //! @param tr a trie object
+    public FrozenTrie( Trie tr ) {
+        this(tr, Precision.DOUBLE);
+    }
+
+    //! @description Freezes a given trie using a given precision for the node values.
+    //! @param tr a trie object
+    //! @param precision precision mode
+    //! @details With the COUNT mode the node values are rounded to the nearest whole numbers.
+    public FrozenTrie( Trie tr, Precision precision ) {
+
+        List<Trie> nodes = new ArrayList<>();
+        Map<String, Integer> symbolIds = new HashMap<>();
+        List<String> symbolList = new ArrayList<>();
+
+        nodes.add(tr);
+
+        // The nodes list grows while being traversed -- breadth-first order.
+        for (int i = 0; i < nodes.size(); i++) {
+            Trie node = nodes.get(i);
+            if (!TrieFunctions.leafQ(node)) {
+                List<Trie> chs = new ArrayList<>(node.getChildren().values());
+                Collections.sort(chs, (a, b) -> compareKeys(a.getKey(), b.getKey()));
+                nodes.addAll(chs);
+            }
+        }
+
+        int n = nodes.size();
+        childOffsets = new int[n + 1];
+        keyIds = new int[n];
+
+        this.precision = precision;
+        switch (precision) {
+            case FLOAT:
+                floatValues = new float[n];
+                break;
+            case COUNT:
+                countValues = new long[n];
+                break;
+            default:
+                values = new double[n];
+        }
+
+        childOffsets[0] = 1;
+
+        for (int i = 0; i < n; i++) {
+            Trie node = nodes.get(i);
+
+            childOffsets[i + 1] = childOffsets[i] + (TrieFunctions.leafQ(node) ? 0 : node.getChildren().size());
+
+            if (node.getKey() == null) {
+                keyIds[i] = -1;
+            } else {
+                Integer id = symbolIds.get(node.getKey());
+                if (id == null) {
+                    id = symbolList.size();
+                    symbolIds.put(node.getKey(), id);
+                    symbolList.add(node.getKey());
+                }
+                keyIds[i] = id;
+            }
+
+            setValue(i, node.hasValue() ? node.getDoubleValue() : Double.NaN);
+        }
+        symbols = symbolList.toArray(new String[0]);
+    }
+
+    //! @description Null keys are ordered before all other keys.
+    protected static int compareKeys( String k1, String k2 ) {
+        if (k1 == null) {
+            return k2 == null ? 0 : -1;
+        } else if (k2 == null) {
+            return 1;
+        }
+        return k1.compareTo(k2);
+    }
+
+
+    ///**************************************************************
+    /// Node access functions
+    ///**************************************************************
+
+    //! @description The number of nodes.
+    public int size() {
+        return keyIds.length;
+    }
+
+    //! @description The precision mode of the node values.
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    //! @description The key of a node.
+    public String getKey( int node ) {
+        return keyIds[node] < 0 ? null : symbols[keyIds[node]];
+    }
+
+    //! @description The value of a node.
+    public double getValue( int node ) {
+        switch (precision) {
+            case FLOAT:
+                return floatValues[node];
+            case COUNT:
+                return countValues[node];
+            default:
+                return values[node];
+        }
+    }
+
+    protected void setValue( int node, double value ) {
+        switch (precision) {
+            case FLOAT:
+                floatValues[node] = (float) value;
+                break;
+            case COUNT:
+                countValues[node] = Math.round(value);
+                break;
+            default:
+                values[node] = value;
+        }
+    }
+
+    //! @description The index of the first child of a node.
+    public int firstChild( int node ) {
+        return childOffsets[node];
+    }
+
+    //! @description The number of children of a node.
+    public int childCount( int node ) {
+        return childOffsets[node + 1] - childOffsets[node];
+    }
+
+    //! @description Test is a node a leaf.
+    public boolean leafQ( int node ) {
+        return childOffsets[node + 1] == childOffsets[node];
+    }
+
+    //! @description Finds the child of a node that has a given key.
+    //! @param node a node index
+    //! @param key a key
+    //! @return The index of the child node or NO_NODE.
+    public int child( int node, String key ) {
+        int lo = childOffsets[node];
+        int hi = childOffsets[node + 1] - 1;
+
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compareKeys(getKey(mid), key);
+            if (c < 0) {
+                lo = mid + 1;
+            } else if (c > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return NO_NODE;
+    }
+
+    //! @description The sum of the values of the children of a node.
+    protected double childrenSum( int node ) {
+        double sum = 0;
+        for (int i = childOffsets[node]; i < childOffsets[node + 1]; i++) {
+            sum += getValue(i);
+        }
+        return sum;
+    }
+
+    //! @description Converts the sub-trie at a given node into a Trie object.
+    //! @param node a node index
+    public Trie toTrie( int node ) {
+        Trie res = newTrieNode(node);
+
+        Deque<Integer> nStack = new ArrayDeque<>();
+        Deque<Trie> tStack = new ArrayDeque<>();
+        nStack.push(node);
+        tStack.push(res);
+
+        while (!nStack.isEmpty()) {
+            int n = nStack.pop();
+            Trie t = tStack.pop();
+
+            if (!leafQ(n)) {
+                Map<String, Trie> resChildren = new HashMap<>();
+                for (int i = childOffsets[n]; i < childOffsets[n + 1]; i++) {
+                    Trie ch = newTrieNode(i);
+                    resChildren.put(getKey(i), ch);
+                    nStack.push(i);
+                    tStack.push(ch);
+                }
+                t.setChildren(resChildren);
+            }
+        }
+
+        return res;
+    }
+
+    //! @description A trie node with the key and the value of a node (without children).
+    protected Trie newTrieNode( int node ) {
+        Trie res = new Trie();
+        res.setKey(getKey(node));
+        if (!Double.isNaN(getValue(node))) {
+            res.setDoubleValue(getValue(node));
+        }
+        return res;
+    }
+
+    //! @description Converts the frozen trie into a Trie object.
+    public Trie toTrie() {
+        return toTrie(ROOT);
+    }
+
+
+    ///**************************************************************
+    /// Retrieval functions
+    ///**************************************************************
+
+    //! @description The number of elements of a word that can be matched from the root.
+    //! @param word a list of strings
+    protected int matchLength( List<String> word ) {
+        int node = ROOT;
+        int k = 0;
+        for (String s : word) {
+            node = child(node, s);
+            if (node == NO_NODE) {
+                break;
+            }
+            k++;
+        }
+        return k;
+    }
+
+    //! @description Find the position of a given word (or part of it) in the trie.
+    //! @param word a list of strings
+    public List<String> position( List<String> word ) {
+        if (word == null || word.isEmpty()) {
+            return null;
+        }
+
+        int k = matchLength(word);
+
+        return k == 0 ? null : new ArrayList<>(word.subList(0, k));
+    }
+
+    //! @description Retrieval of the node corresponding to a "word".
+    //! @param word a list of strings
+    //! @return The index of the deepest node that matches the word.
+    public int retrieve( List<String> word ) {
+        int node = ROOT;
+        if (word == null) {
+            return node;
+        }
+        for (String s : word) {
+            int ch = child(node, s);
+            if (ch == NO_NODE) {
+                break;
+            }
+            node = ch;
+        }
+        return node;
+    }
+
+    //! @description For a given trie finds if the retrievable part of a word is complete match.
+    //! @param word a list of strings
+    public boolean hasCompleteMatch( List<String> word ) {
+        return completeMatchQ(retrieve(word));
+    }
+
+    //! @description Is the node a complete match, i.e. a leaf or an end of a word.
+    protected boolean completeMatchQ( int node ) {
+        return leafQ(node) || childrenSum(node) < getValue(node);
+    }
+
+    //! @description Does the trie contain a word.
+    //! @param word a word to be checked
+    public boolean contains( List<String> word ) {
+        if (word == null || word.isEmpty()) {
+            return false;
+        }
+
+        int node = ROOT;
+        for (String s : word) {
+            node = child(node, s);
+            if (node == NO_NODE) {
+                return false;
+            }
+        }
+        return completeMatchQ(node);
+    }
+
+    //! @description Does the trie have a word as key.
+    //! @param word a word to be checked
+    public boolean isKey( List<String> word ) {
+        return word != null && !word.isEmpty() && matchLength(word) == word.size();
+    }
+
+
+    ///**************************************************************
+    /// Path functions
+    ///**************************************************************
+
+    //! @description Should the path to a node be a row of rootToLeafPaths.
+    //! @details Follows TrieFunctions.toRows .
+    protected boolean rowEndQ( int node ) {
+        if (leafQ(node)) {
+            return true;
+        }
+        double sum = childrenSum(node);
+        double val = getValue(node);
+        return val >= 1.0 && sum < val || val < 1.0 && sum + 2.0d * Math.ulp(sum) < 1.0d;
+    }
+
+    //! @description Adds the rows of the sub-trie at a node to a list; path is the prefix of the rows.
+    protected void toRows( List<List<String>> rows, int node, List<String> path ) {
+        int start = path.size();
+
+        // Nodes to visit and the path lengths before them.
+        Deque<Integer> nodes = new ArrayDeque<>();
+        Deque<Integer> lengths = new ArrayDeque<>();
+        nodes.push(node);
+        lengths.push(start);
+
+        while (!nodes.isEmpty()) {
+            int n = nodes.pop();
+            int len = lengths.pop();
+
+            path.subList(len, path.size()).clear();
+            path.add(getKey(n));
+
+            if (rowEndQ(n)) {
+                rows.add(new ArrayList<>(path));
+            }
+
+            // Pushed in reverse, so the children are visited in index order.
+            for (int i = childOffsets[n + 1] - 1; i >= childOffsets[n]; i--) {
+                nodes.push(i);
+                lengths.push(path.size());
+            }
+        }
+
+        path.subList(start, path.size()).clear();
+    }
+
+    //! @description Finds all words in the trie.
+    public List<List<String>> getWords() {
+        List<List<String>> res = new ArrayList<>();
+        toRows(res, ROOT, new ArrayList<>());
+        return res;
+    }
+
+    //! @description Finds all words in the trie that start with the word sword.
+    //! @param sword search word
+    public List<List<String>> getWords( List<String> sword ) {
+        if (sword == null || sword.isEmpty() || matchLength(sword) < sword.size()) {
+            return null;
+        }
+
+        List<List<String>> res = new ArrayList<>();
+        List<String> path = new ArrayList<>(sword.subList(0, sword.size() - 1));
+
+        toRows(res, retrieve(sword), path);
+
+        return res;
+    }
+
+
+    ///**************************************************************
+    /// Value order functions
+    ///**************************************************************
+
+    //! @description Builds the index of the children of each node ordered by descending values.
+    //! @details The index takes one int per node. Children with equal values are in key order.
+    //! The functions that need the index build it on first use.
+    public synchronized FrozenTrie buildValueOrder() {
+        if (valueOrder != null) {
+            return this;
+        }
+
+        int n = size();
+        int[] order = new int[n];
+        int[] tmp = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        for (int node = 0; node < n; node++) {
+            if (childCount(node) > 1) {
+                sortByValue(order, tmp, childOffsets[node], childOffsets[node + 1]);
+            }
+        }
+
+        valueOrder = order;
+        return this;
+    }
+
+    //! @description Is the value order index built.
+    public boolean hasValueOrder() {
+        return valueOrder != null;
+    }
+
+    //! @description The node value with unset values taken to be 0.
+    protected double weight( int node ) {
+        double v = getValue(node);
+        return Double.isNaN(v) ? 0 : v;
+    }
+
+    //! @description Stable merge sort of node indexes by descending values.
+    protected void sortByValue( int[] a, int[] tmp, int lo, int hi ) {
+        if (hi - lo <= 16) {
+            for (int i = lo + 1; i < hi; i++) {
+                int x = a[i];
+                double v = weight(x);
+                int j = i - 1;
+                while (j >= lo && weight(a[j]) < v) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = x;
+            }
+            return;
+        }
+
+        int mid = (lo + hi) >>> 1;
+        sortByValue(a, tmp, lo, mid);
+        sortByValue(a, tmp, mid, hi);
+
+        System.arraycopy(a, lo, tmp, lo, hi - lo);
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi) {
+            a[k++] = weight(tmp[j]) > weight(tmp[i]) ? tmp[j++] : tmp[i++];
+        }
+        while (i < mid) {
+            a[k++] = tmp[i++];
+        }
+        while (j < hi) {
+            a[k++] = tmp[j++];
+        }
+    }
+
+    //! @description The child of a node with a given rank in the descending order of the child values.
+    //! @param node a node index
+    //! @param rank 0 for the child with the largest value
+    public int childByRank( int node, int rank ) {
+        if (valueOrder == null) {
+            buildValueOrder();
+        }
+        return valueOrder[childOffsets[node] + rank];
+    }
+
+    //! @description The (at most) k children of a node with the largest values, in descending order.
+    public int[] topChildren( int node, int k ) {
+        int m = Math.min(k, childCount(node));
+        int[] res = new int[Math.max(m, 0)];
+        for (int r = 0; r < res.length; r++) {
+            res[r] = childByRank(node, r);
+        }
+        return res;
+    }
+
+    //! @description Remove nodes with values below/above a Pareto threshold and replace them laterally with postfix.
+    //! @param paretoFraction Pareto fraction
+    //! @param removeBottomElementsQ should the bottom elements be removed
+    //! @param postfix key for the node of the removed values sum; if null no such node is made
+    //! @details Follows TrieFunctions.removeByParetoFraction; the children are scanned in the value order, without sorting.
+    public Trie removeByParetoFraction( double paretoFraction, boolean removeBottomElementsQ, String postfix ) {
+        if (valueOrder == null) {
+            buildValueOrder();
+        }
+        return removeByParetoFractionRec(ROOT, paretoFraction, removeBottomElementsQ, postfix);
+    }
+
+    protected Trie removeByParetoFractionRec( int node, double paretoFraction, boolean removeBottomElementsQ, String postfix ) {
+        Trie res = newTrieNode(node);
+
+        Deque<Integer> nStack = new ArrayDeque<>();
+        Deque<Trie> tStack = new ArrayDeque<>();
+        nStack.push(node);
+        tStack.push(res);
+
+        while (!nStack.isEmpty()) {
+            int n = nStack.pop();
+            Trie t = tStack.pop();
+
+            if (leafQ(n)) {
+                continue;
+            }
+
+            int lo = childOffsets[n];
+            int hi = childOffsets[n + 1];
+            double threshold = paretoFraction * childrenWeight(n);
+
+            Map<String, Trie> resChildren = new HashMap<>();
+            double removedSum = 0;
+            double cumSum = 0;
+            for (int j = lo; j < hi; j++) {
+                int ch = valueOrder[j];
+                if (removeBottomElementsQ && cumSum <= threshold || !removeBottomElementsQ && cumSum > threshold) {
+                    Trie tCh = newTrieNode(ch);
+                    resChildren.put(getKey(ch), tCh);
+                    nStack.push(ch);
+                    tStack.push(tCh);
+                } else {
+                    removedSum += weight(ch);
+                }
+                cumSum += weight(ch);
+            }
+
+            if (postfix != null && removedSum > 0) {
+                resChildren.put(postfix, new Trie(postfix, removedSum));
+            }
+
+            if (resChildren.isEmpty()) {
+                // Same as in TrieFunctions.removeByParetoFraction: nothing is removed if nothing would remain.
+                for (int ch = lo; ch < hi; ch++) {
+                    Trie tCh = newTrieNode(ch);
+                    resChildren.put(getKey(ch), tCh);
+                    nStack.push(ch);
+                    tStack.push(tCh);
+                }
+            }
+
+            t.setChildren(resChildren);
+        }
+
+        return res;
+    }
+
+    protected double childrenWeight( int node ) {
+        double sum = 0;
+        for (int i = childOffsets[node]; i < childOffsets[node + 1]; i++) {
+            sum += weight(i);
+        }
+        return sum;
+    }
+
+    //! @description A node of the lazy best-first search over paths.
+    //! @details Each search node stands for a child of the parent search node with a given rank;
+    //! the next ranked sibling is queued only when the search node is expanded.
+    private static class PathSearchNode {
+        PathSearchNode( int node, int rank, PathSearchNode parent, double prob, boolean completeQ ) {
+            this.node = node; this.rank = rank; this.parent = parent; this.prob = prob; this.completeQ = completeQ;
+        }
+
+        public int node;
+        public int rank;
+        public PathSearchNode parent;
+        public double prob;
+        public boolean completeQ;
+    }
+
+    //! @description Finds the k most probable root-to-leaf paths that start with a given word using lazy best-first search.
+    //! @param k number of paths
+    //! @param sword search word; if null or empty all paths are considered
+    //! @param minProb paths with probabilities smaller than minProb are not considered
+    //! @return A list of at most k word-probability pairs in descending order of the probabilities.
+    //! @details Follows TrieFunctions.topRootToLeafPaths. Because of the value order the children of an expanded node
+    //! are queued one at a time, hence the queue size is proportional to k and the depth, not to the fan-out.
+    //! The node values should not be larger than 1, e.g. for tries made with nodeProbabilities.
+    public List<Map.Entry<List<String>, Double>> topRootToLeafPaths( int k, List<String> sword, double minProb ) {
+
+        List<Map.Entry<List<String>, Double>> res = new ArrayList<>();
+
+        if (k <= 0) {
+            return res;
+        }
+
+        if (valueOrder == null) {
+            buildValueOrder();
+        }
+
+        int start = ROOT;
+        double startProb = weight(ROOT);
+        List<String> prefix = Collections.emptyList();
+
+        if (sword != null && !sword.isEmpty()) {
+            prefix = new ArrayList<>();
+            prefix.add(getKey(ROOT));
+            for (int i = 0; i < sword.size(); i++) {
+                start = child(start, sword.get(i));
+                if (start == NO_NODE) {
+                    return res;
+                }
+                startProb *= weight(start);
+                if (i < sword.size() - 1) {
+                    prefix.add(sword.get(i));
+                }
+            }
+        }
+
+        if (startProb < minProb) {
+            return res;
+        }
+
+        PriorityQueue<PathSearchNode> queue = new PriorityQueue<>((a, b) -> Double.compare(b.prob, a.prob));
+        queue.add(new PathSearchNode(start, -1, null, startProb, false));
+
+        while (!queue.isEmpty() && res.size() < k) {
+            PathSearchNode sn = queue.poll();
+
+            if (sn.completeQ) {
+                LinkedList<String> keys = new LinkedList<>();
+                for (PathSearchNode p = sn; p != null; p = p.parent) {
+                    keys.addFirst(getKey(p.node));
+                }
+                keys.addAll(0, prefix);
+                res.add(new TrieFunctions.Pair<>(new ArrayList<>(keys), sn.prob));
+                continue;
+            }
+
+            // The next sibling in the value order.
+            if (sn.parent != null && sn.rank + 1 < childCount(sn.parent.node)) {
+                int sib = childByRank(sn.parent.node, sn.rank + 1);
+                double p = sn.parent.prob * weight(sib);
+                if (p >= minProb) {
+                    queue.add(new PathSearchNode(sib, sn.rank + 1, sn.parent, p, false));
+                }
+            }
+
+            if (rowEndQ(sn.node)) {
+                queue.add(new PathSearchNode(sn.node, sn.rank, sn.parent, sn.prob, true));
+            }
+
+            if (!leafQ(sn.node)) {
+                int ch = childByRank(sn.node, 0);
+                double p = sn.prob * weight(ch);
+                if (p >= minProb) {
+                    queue.add(new PathSearchNode(ch, 0, sn, p, false));
+                }
+            }
+        }
+
+        return res;
+    }
+
+    //! @description Finds the k most probable root-to-leaf paths using lazy best-first search.
+    public List<Map.Entry<List<String>, Double>> topRootToLeafPaths( int k, double minProb ) {
+        return topRootToLeafPaths(k, null, minProb);
+    }
+
+
+    ///**************************************************************
+    /// Conversion to probabilities functions
+    ///**************************************************************
+
+    //! @description Gives the probabilities to end up at each of the leaves by paths from the root of the trie.
+    //! @details Follows TrieFunctions.leafProbabilities .
+    public Map<String, Double> leafProbabilities() {
+        StringDoubleMap res = new StringDoubleMap();
+        leafProbabilitiesRec(res, ROOT, getValue(ROOT));
+        return res.toMap();
+    }
+
+    //! @param res a map to accumulate the result into
+    //! @param node a node index
+    //! @param prob the product of the values from the root to the node
+    //! @details The nodes are processed in the order of a recursive traversal, so the sums are the same.
+    protected void leafProbabilitiesRec( StringDoubleMap res, int node, double prob ) {
+
+        // Stack of node indexes and probabilities; ~i stands for "node i after its children".
+        int[] nodes = new int[16];
+        double[] probs = new double[16];
+        int sp = 0;
+        nodes[sp] = node;
+        probs[sp++] = prob;
+
+        while (sp > 0) {
+            int n = nodes[--sp];
+            double p = probs[sp];
+
+            if (n < 0) {
+                n = ~n;
+                double chSum = 0.0;
+                for (int i = childOffsets[n]; i < childOffsets[n + 1]; i++) {
+                    chSum += getValue(i);
+                }
+                if (chSum < 1.0 && getKey(n) != null) {
+                    res.add(getKey(n), (1 - chSum) * p);
+                }
+                continue;
+            }
+
+            if (leafQ(n)) {
+                res.add(getKey(n), p);
+                continue;
+            }
+
+            int lo = childOffsets[n];
+            int hi = childOffsets[n + 1];
+            if (nodes.length < sp + hi - lo + 1) {
+                int len = Math.max(2 * nodes.length, sp + hi - lo + 1);
+                nodes = Arrays.copyOf(nodes, len);
+                probs = Arrays.copyOf(probs, len);
+            }
+
+            nodes[sp] = ~n;
+            probs[sp++] = p;
+            // Pushed in reverse, so the children are processed in index order.
+            for (int i = hi - 1; i >= lo; i--) {
+                nodes[sp] = i;
+                probs[sp++] = p * getValue(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.util.Arrays;
+
+//! @description A trie with integer keys -- the ids of the symbols in a TrieSymbols dictionary.
+//! @details The children are kept in arrays sorted by key, hence child lookup is a binary search.
+public class IntTrie {
+
+    protected int key;
+    protected double value;
+    protected int[] childKeys;
+    protected IntTrie[] children;
+    protected int childCount;
+
+    public int getKey() {
+        return key;
+    }
+    public void setKey(int key) {
+        this.key = key;
+    }
+    public double getValue() {
+        return value;
+    }
+    public void setValue(double value) {
+        this.value = value;
+    }
+
+    public IntTrie( int key, double value ) {
+        this.key = key;
+        this.value = value;
+    }
+
+    //! @description The number of children.
+    public int getChildCount() {
+        return childCount;
+    }
+
+    //! @description The i-th child in key order.
+    public IntTrie getChild( int i ) {
+        return children[i];
+    }
+
+    //! @description Test is the node a leaf.
+    public boolean leafQ() {
+        return childCount == 0;
+    }
+
+    //! @description Finds the child with a given key.
+    //! @param k key
+    //! @return A trie object or null.
+    public IntTrie child( int k ) {
+        if (childCount == 0) {
+            return null;
+        }
+        int i = Arrays.binarySearch(childKeys, 0, childCount, k);
+        return i < 0 ? null : children[i];
+    }
+
+    //! @description Finds the child with a given key; if there is no such child a new one with value 0 is added.
+    //! @param k key
+    public IntTrie childOrAdd( int k ) {
+        IntTrie ch = child(k);
+        if (ch == null) {
+            ch = new IntTrie(k, 0);
+            putChild(ch);
+        }
+        return ch;
+    }
+
+    //! @description Adds a child; a child with the same key is replaced.
+    //! @param ch a trie object
+    public void putChild( IntTrie ch ) {
+        int i = childCount == 0 ? -1 : Arrays.binarySearch(childKeys, 0, childCount, ch.key);
+        if (i >= 0) {
+            children[i] = ch;
+            return;
+        }
+
+        i = -i - 1;
+
+        if (childKeys == null) {
+            childKeys = new int[2];
+            children = new IntTrie[2];
+        } else if (childCount == childKeys.length) {
+            childKeys = Arrays.copyOf(childKeys, 2 * childCount);
+            children = Arrays.copyOf(children, 2 * childCount);
+        }
+
+        System.arraycopy(childKeys, i, childKeys, i + 1, childCount - i);
+        System.arraycopy(children, i, children, i + 1, childCount - i);
+
+        childKeys[i] = ch.key;
+        children[i] = ch;
+        childCount++;
+    }
+
+    //! @description The sum of the values of the children.
+    public double childrenSum() {
+        double sum = 0;
+        for (int i = 0; i < childCount; i++) {
+            sum += children[i].value;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,342 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+//! @description Functions over tries with integer keys.
+//! @details The "words" are encoded into symbol ids when they are given to these functions
+//! and the results are decoded back into strings, so the trie nodes themselves have no strings.
+public class IntTrieFunctions {
+
+    ///**************************************************************
+    /// Creation functions
+    ///**************************************************************
+
+    //! @description Splits each string of a list of strings using a given regex and interns the obtained tokens.
+    //! @param words a list of strings
+    //! @param regex a splitting pattern
+    //! @param symbols a symbol dictionary
+    public static List<int[]> splitWords(List<String> words, String regex, TrieSymbols symbols) {
+        Pattern pattern = Pattern.compile(regex);
+        List<int[]> res = new ArrayList<>(words.size());
+
+        for (String s : words) {
+            String[] tokens = pattern.split(s);
+            int[] ids = new int[tokens.length];
+            for (int i = 0; i < tokens.length; i++) {
+                ids[i] = symbols.intern(tokens[i]);
+            }
+            res.add(ids);
+        }
+
+        return res;
+    }
+
+    //! @description Inserts a word of symbol ids into a trie by incrementing the values along its path.
+    //! @param tr a trie object
+    //! @param word symbol ids
+    //! @param value the value to be added to each node of the path
+    public static IntTrie insert(IntTrie tr, int[] word, double value) {
+        if (word == null || word.length == 0) {
+            return tr;
+        }
+
+        IntTrie node = tr;
+        node.value += value;
+
+        for (int k : word) {
+            node = node.childOrAdd(k);
+            node.value += value;
+        }
+
+        return tr;
+    }
+
+    //! @description Inserts a word into a trie.
+    //! @param tr a trie object
+    //! @param symbols a symbol dictionary
+    //! @param word a list of strings
+    public static IntTrie insert(IntTrie tr, TrieSymbols symbols, List<String> word) {
+        return insert(tr, symbols.internAll(word), 1.0);
+    }
+
+    //! @description Creates a trie from a given list of words of symbol ids.
+    //! @param words a list of symbol id arrays
+    //! @param symbols a symbol dictionary
+    public static IntTrie create(List<int[]> words, TrieSymbols symbols) {
+        if (words == null || words.isEmpty()) {
+            return null;
+        }
+
+        IntTrie res = new IntTrie(symbols.intern(""), 0);
+        for (int[] w : words) {
+            insert(res, w, 1.0);
+        }
+
+        return res;
+    }
+
+    //! @description Creates a trie by splitting each of the strings in the given list of strings.
+    //! @param words a list of strings
+    //! @param regex a splitting pattern
+    //! @param symbols a symbol dictionary
+    public static IntTrie createBySplit(List<String> words, String regex, TrieSymbols symbols) {
+        return create(splitWords(words, regex, symbols), symbols);
+    }
+
+
+    ///**************************************************************
+    /// Retrieval functions
+    ///**************************************************************
+
+    //! @description The number of elements of a word that can be matched from the root.
+    protected static int matchLength(IntTrie tr, int[] word) {
+        IntTrie node = tr;
+        int k = 0;
+        for (int s : word) {
+            node = node.child(s);
+            if (node == null) {
+                break;
+            }
+            k++;
+        }
+        return k;
+    }
+
+    //! @description Find the position of a given word (or part of it) in the trie.
+    //! @param tr a trie object
+    //! @param symbols a symbol dictionary
+    //! @param word a list of strings
+    public static List<String> position(IntTrie tr, TrieSymbols symbols, List<String> word) {
+        if (word == null || word.isEmpty()) {
+            return null;
+        }
+
+        int[] ids = symbols.encode(word);
+        int k = matchLength(tr, ids);
+
+        return k == 0 ? null : symbols.decode(ids, k);
+    }
+
+    //! @description Retrieval of a sub-trie corresponding to a "word".
+    //! @param tr a trie object
+    //! @param symbols a symbol dictionary
+    //! @param word a list of strings
+    public static IntTrie retrieve(IntTrie tr, TrieSymbols symbols, List<String> word) {
+        IntTrie node = tr;
+        if (word == null) {
+            return node;
+        }
+        for (String s : word) {
+            IntTrie ch = node.child(symbols.id(s));
+            if (ch == null) {
+                break;
+            }
+            node = ch;
+        }
+        return node;
+    }
+
+    //! @description Is the node a complete match, i.e. a leaf or an end of a word.
+    protected static boolean completeMatchQ(IntTrie node) {
+        return node.leafQ() || node.childrenSum() < node.getValue();
+    }
+
+    //! @description For a given trie finds if the retrievable part of a word is complete match.
+    //! @param tr a trie object
+    //! @param symbols a symbol dictionary
+    //! @param word a list of strings
+    public static boolean hasCompleteMatch(IntTrie tr, TrieSymbols symbols, List<String> word) {
+        return completeMatchQ(retrieve(tr, symbols, word));
+    }
+
+    //! @description Does the trie object tr contains a word.
+    //! @param tr a trie object
+    //! @param symbols a symbol dictionary
+    //! @param word a word to be checked
+    public static boolean contains(IntTrie tr, TrieSymbols symbols, List<String> word) {
+        if (word == null || word.isEmpty()) {
+            return false;
+        }
+
+        IntTrie node = tr;
+        for (String s : word) {
+            node = node.child(symbols.id(s));
+            if (node == null) {
+                return false;
+            }
+        }
+        return completeMatchQ(node);
+    }
+
+    //! @description Does the trie object tr has a word as key.
+    //! @param tr a trie object
+    //! @param symbols a symbol dictionary
+    //! @param word a word to be checked
+    public static boolean isKey(IntTrie tr, TrieSymbols symbols, List<String> word) {
+        return word != null && !word.isEmpty() && matchLength(tr, symbols.encode(word)) == word.size();
+    }
+
+
+    ///**************************************************************
+    /// Path functions
+    ///**************************************************************
+
+    //! @description Should the path to a node be a row of the root-to-leaf paths.
+    //! @details Follows TrieFunctions.toRows .
+    protected static boolean rowEndQ(IntTrie node) {
+        if (node.leafQ()) {
+            return true;
+        }
+        double sum = node.childrenSum();
+        double val = node.getValue();
+        return val >= 1.0 && sum < val || val < 1.0 && sum + 2.0d * Math.ulp(sum) < 1.0d;
+    }
+
+    //! @description Adds the rows of a sub-trie to a list; path is the prefix of the rows. (Iteratively.)
+    protected static void toRows(List<List<String>> rows, IntTrie node, TrieSymbols symbols, List<String> path) {
+        int start = path.size();
+
+        // Nodes to visit and the path lengths before them.
+        Deque<IntTrie> nodes = new ArrayDeque<>();
+        Deque<Integer> lengths = new ArrayDeque<>();
+        nodes.push(node);
+        lengths.push(start);
+
+        while (!nodes.isEmpty()) {
+            IntTrie n = nodes.pop();
+            int len = lengths.pop();
+
+            path.subList(len, path.size()).clear();
+            path.add(symbols.symbol(n.getKey()));
+
+            if (rowEndQ(n)) {
+                rows.add(new ArrayList<>(path));
+            }
+
+            // Pushed in reverse, so the children are visited in key order.
+            for (int i = n.getChildCount() - 1; i >= 0; i--) {
+                nodes.push(n.getChild(i));
+                lengths.push(path.size());
+            }
+        }
+
+        path.subList(start, path.size()).clear();
+    }
+
+    //! @description Finds all words in the trie tr.
+    //! @param tr a trie object
+    //! @param symbols a symbol dictionary
+    public static List<List<String>> getWords(IntTrie tr, TrieSymbols symbols) {
+        List<List<String>> res = new ArrayList<>();
+        toRows(res, tr, symbols, new ArrayList<>());
+        return res;
+    }
+
+    //! @description Finds all words in the trie tr that start with the word sword.
+    //! @param tr a trie object
+    //! @param symbols a symbol dictionary
+    //! @param sword search word
+    public static List<List<String>> getWords(IntTrie tr, TrieSymbols symbols, List<String> sword) {
+        if (sword == null || sword.isEmpty() || !isKey(tr, symbols, sword)) {
+            return null;
+        }
+
+        List<List<String>> res = new ArrayList<>();
+        toRows(res, retrieve(tr, symbols, sword), symbols, new ArrayList<>(sword.subList(0, sword.size() - 1)));
+        return res;
+    }
+
+
+    ///**************************************************************
+    /// Conversion functions
+    ///**************************************************************
+
+    //! @description Converts a trie with integer keys into a Trie object.
+    //! @param tr a trie object
+    //! @param symbols a symbol dictionary
+    public static Trie toTrie(IntTrie tr, TrieSymbols symbols) {
+        Trie res = new Trie(symbols.symbol(tr.getKey()), tr.getValue());
+
+        Deque<IntTrie> iStack = new ArrayDeque<>();
+        Deque<Trie> tStack = new ArrayDeque<>();
+        iStack.push(tr);
+        tStack.push(res);
+
+        while (!iStack.isEmpty()) {
+            IntTrie node = iStack.pop();
+            Trie t = tStack.pop();
+
+            if (!node.leafQ()) {
+                Map<String, Trie> resChildren = new HashMap<>();
+                for (int i = 0; i < node.getChildCount(); i++) {
+                    IntTrie ich = node.getChild(i);
+                    Trie ch = new Trie(symbols.symbol(ich.getKey()), ich.getValue());
+                    resChildren.put(ch.getKey(), ch);
+                    iStack.push(ich);
+                    tStack.push(ch);
+                }
+                t.setChildren(resChildren);
+            }
+        }
+
+        return res;
+    }
+
+    //! @description Converts a Trie object into a trie with integer keys.
+    //! @param tr a trie object
+    //! @param symbols a symbol dictionary
+    public static IntTrie fromTrie(Trie tr, TrieSymbols symbols) {
+        return TrieTraversal.fold(tr, new TrieTraversal.Folder<IntTrie>() {
+            @Override
+            public Trie preVisit(Trie node, int depth) {
+                // The keys are interned in pre-order, as with a recursive conversion.
+                symbols.intern(node.getKey());
+                return node;
+            }
+
+            @Override
+            public IntTrie postVisit(Trie node, int depth, Map<String, IntTrie> childResults) {
+                IntTrie res = new IntTrie(symbols.id(node.getKey()), node.getDoubleValue());
+                if (childResults != null) {
+                    for (IntTrie ch : childResults.values()) {
+                        res.putChild(ch);
+                    }
+                }
+                return res;
+            }
+        });
+    }
+}
@@ -0,0 +1,732 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+
+//! @description A trie with frequencies the nodes of which are kept outside of the Java heap.
+//! @details The node records and the child lookup table are in direct byte buffers, so very large tries
+//! do not burden the garbage collector. Only the symbols (the distinct keys) are kept on the heap
+//! in a TrieSymbols dictionary. The nodes are referred to by their indexes, as in FrozenTrie;
+//! the root has the index ROOT. The memory is freed with close; the trie cannot be used after that.
+//! The trie is not thread safe.
+//! The direct buffers count against the JVM limit -XX:MaxDirectMemorySize, which by default equals the maximum
+//! heap size (-Xmx); with a small heap the limit has to be raised, e.g. -Xmx256m -XX:MaxDirectMemorySize=16g.
+//! A node takes 32 bytes and the child table 16 bytes per slot (at most 3/4 of the slots are used),
+//! rounded up to whole buffers of 2^chunkShift bytes;
+//! while the table grows both the old and the doubled table are held, so the peak is about three times the table size.
+public class OffHeapTrie implements AutoCloseable {
+
+    //! @description The index of the root node.
+    public static final int ROOT = 0;
+
+    //! @description Value returned by the lookup functions when there is no such node.
+    public static final int NO_NODE = -1;
+
+    //! Node record layout: symbol id, parent, first child, next sibling, value, child count.
+    protected static final int NODE_BYTES = 32;
+    protected static final int SYMBOL_OFFSET = 0;
+    protected static final int PARENT_OFFSET = 4;
+    protected static final int FIRST_CHILD_OFFSET = 8;
+    protected static final int NEXT_SIBLING_OFFSET = 12;
+    protected static final int VALUE_OFFSET = 16;
+    protected static final int CHILD_COUNT_OFFSET = 24;
+
+    //! Child table slot layout: (parent, symbol) key plus one (0 marks an empty slot), child index.
+    protected static final int SLOT_BYTES = 16;
+    protected static final int SLOT_CHILD_OFFSET = 8;
+
+    //! @description The default size of the buffers of the arenas (in bytes) is 2^DEFAULT_CHUNK_SHIFT.
+    public static final int DEFAULT_CHUNK_SHIFT = 22;
+
+    protected static final long INITIAL_SLOTS = 1024;
+
+    protected TrieSymbols symbols;
+    protected int chunkShift;
+
+    protected Arena nodeArena;
+    protected Arena tableArena;
+    protected int nodeCount;
+    protected long tableSlots;
+    protected long tableSize;
+
+    //! @description Makes an empty trie with a new symbol dictionary.
+    public OffHeapTrie() {
+        this(new TrieSymbols());
+    }
+
+    //! @description Makes an empty trie, a root with the key "" and the value 0.
+    //! @param symbols a symbol dictionary
+    public OffHeapTrie( TrieSymbols symbols ) {
+        this(symbols, DEFAULT_CHUNK_SHIFT);
+    }
+
+    //! @description Makes an empty trie with a given arena buffer size.
+    //! @param symbols a symbol dictionary
+    //! @param chunkShift the size of the buffers is 2^chunkShift bytes; at least 5
+    public OffHeapTrie( TrieSymbols symbols, int chunkShift ) {
+        if (chunkShift < 5 || chunkShift > 30) {
+            throw new IllegalArgumentException("The chunk shift should be between 5 and 30.");
+        }
+        this.symbols = symbols;
+        this.chunkShift = chunkShift;
+        this.nodeArena = new Arena(chunkShift);
+        this.tableArena = new Arena(chunkShift);
+        this.tableArena.ensure(INITIAL_SLOTS * SLOT_BYTES);
+        this.tableSlots = INITIAL_SLOTS;
+        newNode(symbols.intern(""), NO_NODE);
+    }
+
+
+    ///**************************************************************
+    /// Arenas
+    ///**************************************************************
+
+    //! @description Growable off-heap memory made of direct byte buffers of equal, power of two sizes.
+    //! @details The records are not split between buffers because their sizes divide the buffer size.
+    protected static class Arena {
+        Arena( int chunkShift ) { this.chunkShift = chunkShift; this.chunkMask = (1L << chunkShift) - 1; }
+
+        public int chunkShift;
+        public long chunkMask;
+        public ByteBuffer[] chunks = new ByteBuffer[0];
+        public int chunkCount = 0;
+
+        public long capacity() {
+            return (long) chunkCount << chunkShift;
+        }
+
+        //! @description Adds buffers until the arena has at least a given number of bytes.
+        //! @details Only the needed buffers are allocated (and zeroed); the array holding them grows geometrically.
+        public void ensure( long bytes ) {
+            int n = (int) ((bytes + chunkMask) >>> chunkShift);
+            if (n > chunks.length) {
+                int k = chunks.length;
+                chunks = Arrays.copyOf(chunks, Math.max(n, k + (k >> 1)));
+            }
+            for (; chunkCount < n; chunkCount++) {
+                chunks[chunkCount] = ByteBuffer.allocateDirect(1 << chunkShift).order(ByteOrder.nativeOrder());
+            }
+        }
+
+        public int getInt( long pos ) {
+            return chunks[(int) (pos >>> chunkShift)].getInt((int) (pos & chunkMask));
+        }
+
+        public void putInt( long pos, int v ) {
+            chunks[(int) (pos >>> chunkShift)].putInt((int) (pos & chunkMask), v);
+        }
+
+        public long getLong( long pos ) {
+            return chunks[(int) (pos >>> chunkShift)].getLong((int) (pos & chunkMask));
+        }
+
+        public void putLong( long pos, long v ) {
+            chunks[(int) (pos >>> chunkShift)].putLong((int) (pos & chunkMask), v);
+        }
+
+        public double getDouble( long pos ) {
+            return chunks[(int) (pos >>> chunkShift)].getDouble((int) (pos & chunkMask));
+        }
+
+        public void putDouble( long pos, double v ) {
+            chunks[(int) (pos >>> chunkShift)].putDouble((int) (pos & chunkMask), v);
+        }
+
+        //! @description Frees the buffers.
+        public void free() {
+            for (int i = 0; i < chunkCount; i++) {
+                freeBuffer(chunks[i]);
+            }
+            chunks = new ByteBuffer[0];
+            chunkCount = 0;
+        }
+    }
+
+    //! The method sun.misc.Unsafe.invokeCleaner and its receiver; null if not available.
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> c = Class.forName("sun.misc.Unsafe");
+            Field f = c.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            unsafe = f.get(null);
+            invokeCleaner = c.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    //! @description Frees the memory of a direct buffer right away.
+    //! @details If that is not possible the memory is freed when the buffer is garbage collected.
+    protected static void freeBuffer( ByteBuffer b ) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, b);
+        } catch (ReflectiveOperationException e) {
+            // The buffer is left to the garbage collector.
+        }
+    }
+
+    //! @description Frees the off-heap memory of the trie.
+    @Override
+    public void close() {
+        if (nodeArena != null) {
+            nodeArena.free();
+            tableArena.free();
+            nodeArena = null;
+            tableArena = null;
+        }
+    }
+
+    //! @description Is the trie closed.
+    public boolean isClosed() {
+        return nodeArena == null;
+    }
+
+    protected void checkOpen() {
+        if (nodeArena == null) {
+            throw new IllegalStateException("The off-heap trie is closed.");
+        }
+    }
+
+
+    ///**************************************************************
+    /// Node access functions
+    ///**************************************************************
+
+    //! @description The symbol dictionary of the trie.
+    public TrieSymbols getSymbols() {
+        return symbols;
+    }
+
+    //! @description The number of nodes.
+    public int size() {
+        return nodeCount;
+    }
+
+    //! @description The number of off-heap bytes taken by the trie.
+    public long offHeapBytes() {
+        return isClosed() ? 0 : nodeArena.capacity() + tableArena.capacity();
+    }
+
+    //! @description Throws an exception if the trie is closed or a node index is not valid.
+    protected void checkNode( int node ) {
+        checkOpen();
+        Objects.checkIndex(node, nodeCount);
+    }
+
+    //! @description The key of a node.
+    public String getKey( int node ) {
+        checkNode(node);
+        return keyAt(node);
+    }
+
+    //! @description The value of a node.
+    public double getValue( int node ) {
+        checkNode(node);
+        return valueAt(node);
+    }
+
+    //! @description Sets the value of a node.
+    public void setValue( int node, double value ) {
+        checkNode(node);
+        setValueAt(node, value);
+    }
+
+    //! @description The parent of a node; NO_NODE for the root.
+    public int parent( int node ) {
+        checkNode(node);
+        return nodeArena.getInt((long) node * NODE_BYTES + PARENT_OFFSET);
+    }
+
+    //! @description The first child of a node or NO_NODE.
+    //! @details The children of a node are listed from the most recently added one.
+    public int firstChild( int node ) {
+        checkNode(node);
+        return firstChildAt(node);
+    }
+
+    //! @description The next sibling of a node or NO_NODE.
+    public int nextSibling( int node ) {
+        checkNode(node);
+        return nextSiblingAt(node);
+    }
+
+    //! @description The number of children of a node.
+    public int childCount( int node ) {
+        checkNode(node);
+        return childCountAt(node);
+    }
+
+    //! @description Test is a node a leaf.
+    public boolean leafQ( int node ) {
+        return childCount(node) == 0;
+    }
+
+    // The unchecked record accessors used inside the class.
+
+    protected String keyAt( int node ) {
+        return symbols.symbol(nodeArena.getInt((long) node * NODE_BYTES + SYMBOL_OFFSET));
+    }
+
+    protected double valueAt( int node ) {
+        return nodeArena.getDouble((long) node * NODE_BYTES + VALUE_OFFSET);
+    }
+
+    protected void setValueAt( int node, double value ) {
+        nodeArena.putDouble((long) node * NODE_BYTES + VALUE_OFFSET, value);
+    }
+
+    protected int firstChildAt( int node ) {
+        return nodeArena.getInt((long) node * NODE_BYTES + FIRST_CHILD_OFFSET);
+    }
+
+    protected int nextSiblingAt( int node ) {
+        return nodeArena.getInt((long) node * NODE_BYTES + NEXT_SIBLING_OFFSET);
+    }
+
+    protected int childCountAt( int node ) {
+        return nodeArena.getInt((long) node * NODE_BYTES + CHILD_COUNT_OFFSET);
+    }
+
+    //! @description The sum of the values of the children of a node.
+    protected double childrenSum( int node ) {
+        double sum = 0;
+        for (int ch = firstChildAt(node); ch != NO_NODE; ch = nextSiblingAt(ch)) {
+            sum += valueAt(ch);
+        }
+        return sum;
+    }
+
+    //! @description Adds a node record.
+    protected int newNode( int symbol, int parent ) {
+        if (nodeCount == Integer.MAX_VALUE) {
+            throw new IllegalStateException("The off-heap trie cannot have more nodes.");
+        }
+
+        int node = nodeCount++;
+        long pos = (long) node * NODE_BYTES;
+        nodeArena.ensure(pos + NODE_BYTES);
+
+        nodeArena.putInt(pos + SYMBOL_OFFSET, symbol);
+        nodeArena.putInt(pos + PARENT_OFFSET, parent);
+        nodeArena.putInt(pos + FIRST_CHILD_OFFSET, NO_NODE);
+        nodeArena.putInt(pos + NEXT_SIBLING_OFFSET, NO_NODE);
+        nodeArena.putDouble(pos + VALUE_OFFSET, 0.0);
+        nodeArena.putInt(pos + CHILD_COUNT_OFFSET, 0);
+
+        if (parent != NO_NODE) {
+            long ppos = (long) parent * NODE_BYTES;
+            nodeArena.putInt(pos + NEXT_SIBLING_OFFSET, nodeArena.getInt(ppos + FIRST_CHILD_OFFSET));
+            nodeArena.putInt(ppos + FIRST_CHILD_OFFSET, node);
+            nodeArena.putInt(ppos + CHILD_COUNT_OFFSET, nodeArena.getInt(ppos + CHILD_COUNT_OFFSET) + 1);
+        }
+
+        return node;
+    }
+
+
+    ///**************************************************************
+    /// Child table
+    ///**************************************************************
+
+    //! @description The child table key of a parent and a symbol; never 0.
+    protected static long slotKey( int parent, int symbol ) {
+        return (((long) parent << 32) | (symbol & 0xFFFFFFFFL)) + 1;
+    }
+
+    //! @description Mixes the bits of a key (the finalizer of MurmurHash3).
+    protected static long mix( long k ) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    //! @description Finds the child of a node that has a given symbol id.
+    //! @return The index of the child node or NO_NODE.
+    protected int childById( int node, int symbol ) {
+        if (symbol == TrieSymbols.NO_SYMBOL) {
+            return NO_NODE;
+        }
+
+        long key = slotKey(node, symbol);
+        long mask = tableSlots - 1;
+        for (long i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long k = tableArena.getLong(i * SLOT_BYTES);
+            if (k == key) {
+                return tableArena.getInt(i * SLOT_BYTES + SLOT_CHILD_OFFSET);
+            } else if (k == 0) {
+                return NO_NODE;
+            }
+        }
+    }
+
+    protected static void putSlot( Arena table, long slots, long key, int child ) {
+        long mask = slots - 1;
+        long i = mix(key) & mask;
+        while (table.getLong(i * SLOT_BYTES) != 0) {
+            i = (i + 1) & mask;
+        }
+        table.putLong(i * SLOT_BYTES, key);
+        table.putInt(i * SLOT_BYTES + SLOT_CHILD_OFFSET, child);
+    }
+
+    //! @description Doubles the child table.
+    //! @details The old table is freed after the entries are moved, so both tables are held for a while.
+    protected void growTable() {
+        long slots = 2 * tableSlots;
+        Arena table = new Arena(chunkShift);
+        table.ensure(slots * SLOT_BYTES);
+
+        for (long i = 0; i < tableSlots; i++) {
+            long k = tableArena.getLong(i * SLOT_BYTES);
+            if (k != 0) {
+                putSlot(table, slots, k, tableArena.getInt(i * SLOT_BYTES + SLOT_CHILD_OFFSET));
+            }
+        }
+
+        tableArena.free();
+        tableArena = table;
+        tableSlots = slots;
+    }
+
+    //! @description Finds the child of a node that has a given symbol id; if there is no such child a new one with value 0 is added.
+    protected int childOrAdd( int node, int symbol ) {
+        int ch = childById(node, symbol);
+        if (ch == NO_NODE) {
+            if (4 * (tableSize + 1) > 3 * tableSlots) {
+                growTable();
+            }
+            ch = newNode(symbol, node);
+            putSlot(tableArena, tableSlots, slotKey(node, symbol), ch);
+            tableSize++;
+        }
+        return ch;
+    }
+
+    //! @description Finds the child of a node that has a given key.
+    //! @param node a node index
+    //! @param key a key
+    //! @return The index of the child node or NO_NODE.
+    public int child( int node, String key ) {
+        checkNode(node);
+        return childById(node, symbols.id(key));
+    }
+
+
+    ///**************************************************************
+    /// Creation functions
+    ///**************************************************************
+
+    //! @description Inserts a "word" (a list of strings) into the trie.
+    //! @param word a list of strings
+    public OffHeapTrie insert( List<String> word ) {
+        return insert(word, 1.0, 1.0);
+    }
+
+    //! @description Inserts a "word" (a list of strings) into the trie.
+    //! @param word a list of strings
+    //! @param value the value to be added to each node of the word path
+    //! @param bottomVal the value to be added to the last node of the word path
+    //! @details The same as TrieFunctions.insertInPlace for the corresponding trie.
+    public OffHeapTrie insert( List<String> word, double value, double bottomVal ) {
+        checkOpen();
+        if (word == null || word.isEmpty()) {
+            return this;
+        }
+
+        setValueAt(ROOT, valueAt(ROOT) + value);
+
+        int node = ROOT;
+        int n = word.size();
+        for (int i = 0; i < n; i++) {
+            node = childOrAdd(node, symbols.intern(word.get(i)));
+            setValueAt(node, valueAt(node) + (i == n - 1 ? bottomVal : value));
+        }
+
+        return this;
+    }
+
+    //! @description Creates an off-heap trie from a list of words.
+    //! @param words a list of lists of strings
+    public static OffHeapTrie create( List<List<String>> words ) {
+        OffHeapTrie res = new OffHeapTrie();
+        for (List<String> w : words) {
+            res.insert(w);
+        }
+        return res;
+    }
+
+    //! @description Creates an off-heap trie from a list of strings each of which is split with a regexp.
+    public static OffHeapTrie createBySplit( List<String> words, String regex ) {
+        return create(TrieFunctions.splitWords(words, regex));
+    }
+
+    //! @description Copies a trie into a new off-heap trie.
+    //! @param tr a trie object
+    public static OffHeapTrie fromTrie( Trie tr ) {
+        OffHeapTrie res = new OffHeapTrie();
+        res.nodeArena.putInt(SYMBOL_OFFSET, res.symbols.intern(tr.getKey()));
+
+        Deque<Trie> tStack = new ArrayDeque<>();
+        Deque<Integer> nStack = new ArrayDeque<>();
+        tStack.push(tr);
+        nStack.push(ROOT);
+
+        while (!tStack.isEmpty()) {
+            Trie t = tStack.pop();
+            int node = nStack.pop();
+
+            res.setValueAt(node, t.getDoubleValue());
+
+            if (!TrieFunctions.leafQ(t)) {
+                for (Trie ch : t.getChildren().values()) {
+                    tStack.push(ch);
+                    nStack.push(res.childOrAdd(node, res.symbols.intern(ch.getKey())));
+                }
+            }
+        }
+
+        return res;
+    }
+
+    //! @description Converts the sub-trie at a given node into a Trie object.
+    //! @param node a node index
+    public Trie toTrie( int node ) {
+        checkNode(node);
+        Trie res = new Trie(keyAt(node), valueAt(node));
+
+        Deque<Trie> tStack = new ArrayDeque<>();
+        Deque<Integer> nStack = new ArrayDeque<>();
+        tStack.push(res);
+        nStack.push(node);
+
+        while (!tStack.isEmpty()) {
+            Trie t = tStack.pop();
+            int n = nStack.pop();
+
+            if (childCountAt(n) > 0) {
+                HashMap<String, Trie> tChildren = new HashMap<>();
+                for (int ch = firstChildAt(n); ch != NO_NODE; ch = nextSiblingAt(ch)) {
+                    Trie tCh = new Trie(keyAt(ch), valueAt(ch));
+                    tChildren.put(tCh.getKey(), tCh);
+                    tStack.push(tCh);
+                    nStack.push(ch);
+                }
+                t.setChildren(tChildren);
+            }
+        }
+
+        return res;
+    }
+
+    //! @description Converts the off-heap trie into a Trie object.
+    public Trie toTrie() {
+        return toTrie(ROOT);
+    }
+
+
+    ///**************************************************************
+    /// Retrieval functions
+    ///**************************************************************
+
+    //! @description The number of elements of a word that can be matched from the root.
+    //! @param word a list of strings
+    protected int matchLength( List<String> word ) {
+        int node = ROOT;
+        int k = 0;
+        for (String s : word) {
+            node = childById(node, symbols.id(s));
+            if (node == NO_NODE) {
+                break;
+            }
+            k++;
+        }
+        return k;
+    }
+
+    //! @description Find the position of a given word (or part of it) in the trie.
+    //! @param word a list of strings
+    public List<String> position( List<String> word ) {
+        checkOpen();
+        if (word == null || word.isEmpty()) {
+            return null;
+        }
+
+        int k = matchLength(word);
+
+        return k == 0 ? null : new ArrayList<>(word.subList(0, k));
+    }
+
+    //! @description Retrieval of the node corresponding to a "word".
+    //! @param word a list of strings
+    //! @return The index of the deepest node that matches the word.
+    public int retrieve( List<String> word ) {
+        checkOpen();
+        int node = ROOT;
+        if (word == null) {
+            return node;
+        }
+        for (String s : word) {
+            int ch = childById(node, symbols.id(s));
+            if (ch == NO_NODE) {
+                break;
+            }
+            node = ch;
+        }
+        return node;
+    }
+
+    //! @description For a given trie finds if the retrievable part of a word is complete match.
+    //! @param word a list of strings
+    public boolean hasCompleteMatch( List<String> word ) {
+        return completeMatchQ(retrieve(word));
+    }
+
+    //! @description Is the node a complete match, i.e. a leaf or an end of a word.
+    protected boolean completeMatchQ( int node ) {
+        return childCountAt(node) == 0 || childrenSum(node) < valueAt(node);
+    }
+
+    //! @description Does the trie contain a word.
+    //! @param word a word to be checked
+    public boolean contains( List<String> word ) {
+        checkOpen();
+        if (word == null || word.isEmpty()) {
+            return false;
+        }
+
+        int node = ROOT;
+        for (String s : word) {
+            node = childById(node, symbols.id(s));
+            if (node == NO_NODE) {
+                return false;
+            }
+        }
+        return completeMatchQ(node);
+    }
+
+    //! @description Does the trie have a word as key.
+    //! @param word a word to be checked
+    public boolean isKey( List<String> word ) {
+        checkOpen();
+        return word != null && !word.isEmpty() && matchLength(word) == word.size();
+    }
+
+
+    ///**************************************************************
+    /// Path functions
+    ///**************************************************************
+
+    //! @description Should the path to a node be a row of the root-to-leaf paths.
+    //! @details Follows TrieFunctions.toRows .
+    protected boolean rowEndQ( int node ) {
+        if (childCountAt(node) == 0) {
+            return true;
+        }
+        double sum = childrenSum(node);
+        double val = valueAt(node);
+        return val >= 1.0 && sum < val || val < 1.0 && sum + 2.0d * Math.ulp(sum) < 1.0d;
+    }
+
+    //! @description The rows of the sub-trie at a node with a prefix; iterative.
+    protected List<List<String>> toRows( int start, List<String> prefix ) {
+        List<List<String>> res = new ArrayList<>();
+        List<String> path = new ArrayList<>(prefix);
+
+        // Nodes to visit and the path lengths before them.
+        Deque<Integer> nodes = new ArrayDeque<>();
+        Deque<Integer> lengths = new ArrayDeque<>();
+        nodes.push(start);
+        lengths.push(path.size());
+
+        while (!nodes.isEmpty()) {
+            int node = nodes.pop();
+            int len = lengths.pop();
+
+            path.subList(len, path.size()).clear();
+            path.add(keyAt(node));
+
+            if (rowEndQ(node)) {
+                res.add(new ArrayList<>(path));
+            }
+
+            for (int ch = firstChildAt(node); ch != NO_NODE; ch = nextSiblingAt(ch)) {
+                nodes.push(ch);
+                lengths.push(path.size());
+            }
+        }
+
+        return res;
+    }
+
+    //! @description Finds all words in the trie.
+    public List<List<String>> getWords() {
+        checkOpen();
+        return toRows(ROOT, new ArrayList<>());
+    }
+
+    //! @description Finds all words in the trie that start with the word sword.
+    //! @param sword search word
+    public List<List<String>> getWords( List<String> sword ) {
+        checkOpen();
+        if (sword == null || sword.isEmpty() || matchLength(sword) < sword.size()) {
+            return null;
+        }
+
+        return toRows(retrieve(sword), sword.subList(0, sword.size() - 1));
+    }
+}
@@ -0,0 +1,509 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+//! @description Persistent (immutable) trie with frequencies.
+//! @details The functions insert and merge do not change the trie objects they are applied to,
+//! they return new versions that share with the old ones all sub-tries that are not on the changed paths.
+//! Hence a version is a snapshot that is taken in O(1) -- no defensive clone() is needed before an update.
+//! The children of a node are kept in a hash array mapped trie (HAMT) keyed by the child keys,
+//! so the insertion of a word copies O(log32(n)) child slots per node on its path.
+public final class PersistentTrie {
+
+    private static final PersistentTrie EMPTY = new PersistentTrie("", 0.0, null, 0);
+
+    private final String key;
+    private final double value;
+    private final Node children;
+    private final int childCount;
+
+    private PersistentTrie( String key, double value, Node children, int childCount ) {
+        this.key = key;
+        this.value = value;
+        this.children = children;
+        this.childCount = childCount;
+    }
+
+    //! @description The empty trie, a root with the key "" and the value 0.
+    public static PersistentTrie empty() {
+        return EMPTY;
+    }
+
+    //! @description A leaf with a given key and value.
+    public static PersistentTrie leaf( String key, double value ) {
+        return new PersistentTrie(key, value, null, 0);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public int childCount() {
+        return childCount;
+    }
+
+    public boolean leafQ() {
+        return childCount == 0;
+    }
+
+    //! @description The child with a given key; null if there is no such child.
+    public PersistentTrie getChild( String k ) {
+        return children == null ? null : children.get(k, hash(k), 0);
+    }
+
+    //! @description The children of the node (in no particular order).
+    public List<PersistentTrie> getChildren() {
+        List<PersistentTrie> res = new ArrayList<>(childCount);
+        if (children != null) {
+            children.forEach(res::add);
+        }
+        return res;
+    }
+
+    //! @description Applies a function to each of the children.
+    public void forEachChild( Consumer<PersistentTrie> func ) {
+        if (children != null) {
+            children.forEach(func);
+        }
+    }
+
+    //! @description A new version of the node with a given value.
+    public PersistentTrie withValue( double v ) {
+        return new PersistentTrie(key, v, children, childCount);
+    }
+
+    //! @description A new version of the node with a given child (added or replaced).
+    public PersistentTrie withChild( PersistentTrie ch ) {
+        int h = hash(ch.key);
+        boolean newQ = children == null || children.get(ch.key, h, 0) == null;
+        Node chs = children == null ? new Node(0, new Object[0]) : children;
+        return new PersistentTrie(key, value, chs.put(ch, h, 0), childCount + (newQ ? 1 : 0));
+    }
+
+
+    ///**************************************************************
+    /// Update functions
+    ///**************************************************************
+
+    //! @description Inserts a "word" (a list of strings) into the trie.
+    //! @param word a list of strings
+    //! @return A new version of the trie.
+    public PersistentTrie insert( List<String> word ) {
+        return insert(word, 1.0, 1.0);
+    }
+
+    //! @description Inserts a "word" (a list of strings) into the trie.
+    //! @param word a list of strings
+    //! @param value the value to be added to each node of the word path
+    //! @param bottomVal the value to be added to the last node of the word path
+    //! @return A new version of the trie; the same as TrieFunctions.insertInPlace gives for a copy of the trie.
+    public PersistentTrie insert( List<String> word, double value, double bottomVal ) {
+        if (word == null || word.isEmpty()) {
+            return this;
+        }
+
+        // The nodes on the word path; new leaves for the part of the word that is not in the trie.
+        int n = word.size();
+        PersistentTrie[] path = new PersistentTrie[n + 1];
+        boolean[] newQ = new boolean[n + 1];
+        path[0] = this;
+        for (int i = 0; i < n; i++) {
+            PersistentTrie ch = path[i].getChild(word.get(i));
+            newQ[i + 1] = ch == null;
+            path[i + 1] = ch == null ? leaf(word.get(i), 0.0) : ch;
+        }
+
+        // The new versions of the path nodes are made bottom-up.
+        PersistentTrie res = path[n].withValue(path[n].value + bottomVal);
+        for (int i = n - 1; i >= 0; i--) {
+            PersistentTrie node = path[i];
+            Node chs = node.children == null ? new Node(0, new Object[0]) : node.children;
+            res = new PersistentTrie(node.key, node.value + value, chs.put(res, hash(word.get(i)), 0), node.childCount + (newQ[i + 1] ? 1 : 0));
+        }
+        return res;
+    }
+
+    //! @description Merges two tries; the values of the nodes with the same key paths are summed.
+    //! @param other a trie
+    //! @return A new trie that shares the sub-tries that are only in one of the arguments.
+    //! @details Follows TrieFunctions.merge, but the arguments are not changed.
+    public PersistentTrie merge( PersistentTrie other ) {
+        Deque<MergeFrame> stack = new ArrayDeque<>();
+
+        PersistentTrie res = mergeNode(this, other, stack);
+
+        while (!stack.isEmpty()) {
+            MergeFrame f = stack.peek();
+
+            if (f.i < f.others.size()) {
+                PersistentTrie ch2 = f.others.get(f.i++);
+                PersistentTrie ch1 = f.res.getChild(ch2.key);
+                PersistentTrie r = ch1 == null ? ch2 : mergeNode(ch1, ch2, stack);
+                if (r != null) {
+                    f.res = f.res.withChild(r);
+                }
+            } else {
+                stack.pop();
+                if (stack.isEmpty()) {
+                    res = f.res;
+                } else {
+                    stack.peek().res = stack.peek().res.withChild(f.res);
+                }
+            }
+        }
+
+        return res;
+    }
+
+    //! @description A pair of nodes being merged: the merged node so far and the children of the second node.
+    private static final class MergeFrame {
+        MergeFrame( PersistentTrie res, List<PersistentTrie> others ) { this.res = res; this.others = others; }
+
+        public PersistentTrie res;
+        public List<PersistentTrie> others;
+        public int i;
+    }
+
+    //! @description Merges two nodes if that does not need merging their children.
+    //! @return The merged node, or null if a frame for merging the children is pushed on the stack.
+    private static PersistentTrie mergeNode( PersistentTrie tr, PersistentTrie other, Deque<MergeFrame> stack ) {
+        if (other == null) {
+            return tr;
+        }
+
+        String key = tr.key;
+        double value = tr.value;
+
+        if (!Objects.equals(key, other.key)) {
+            // Same as TrieFunctions.merge: a node without a key and a value that has the children of both.
+            PersistentTrie res = new PersistentTrie(null, 0.0, null, 0);
+            for (PersistentTrie ch : tr.getChildren()) {
+                res = res.withChild(ch);
+            }
+            for (PersistentTrie ch : other.getChildren()) {
+                res = res.withChild(ch);
+            }
+            return res;
+        }
+
+        if (other.children == null) {
+            return tr.withValue(value + other.value);
+        } else if (tr.children == null) {
+            return other.withValue(value + other.value);
+        }
+
+        stack.push(new MergeFrame(tr.withValue(value + other.value), other.getChildren()));
+        return null;
+    }
+
+
+    ///**************************************************************
+    /// Retrieval functions
+    ///**************************************************************
+
+    //! @description The number of elements of a word that can be matched from the root.
+    protected int matchLength( List<String> word ) {
+        PersistentTrie node = this;
+        int depth = 0;
+        while (word != null && depth < word.size()) {
+            PersistentTrie ch = node.getChild(word.get(depth));
+            if (ch == null) {
+                break;
+            }
+            node = ch;
+            depth++;
+        }
+        return depth;
+    }
+
+    //! @description Find the position of a given word (or part of it) in the trie.
+    //! @details See TrieFunctions.position .
+    public List<String> position( List<String> word ) {
+        if (word == null || word.isEmpty()) {
+            return null;
+        }
+        int depth = matchLength(word);
+        return depth == 0 ? null : new ArrayList<>(word.subList(0, depth));
+    }
+
+    //! @description Retrieval of a sub-trie corresponding to a "word".
+    //! @details See TrieFunctions.retrieve .
+    public PersistentTrie retrieve( List<String> word ) {
+        PersistentTrie node = this;
+        for (int i = 0; word != null && i < word.size(); i++) {
+            PersistentTrie ch = node.getChild(word.get(i));
+            if (ch == null) {
+                break;
+            }
+            node = ch;
+        }
+        return node;
+    }
+
+    //! @description Is the node a complete match, i.e. a leaf or an end of a word.
+    public boolean completeMatchQ() {
+        if (leafQ()) {
+            return true;
+        }
+        return childrenSum() < value;
+    }
+
+    //! @description Does the deepest node matched by a word is a complete match.
+    public boolean hasCompleteMatch( List<String> word ) {
+        return retrieve(word).completeMatchQ();
+    }
+
+    //! @description Does the trie contain a word (as a complete match).
+    public boolean contains( List<String> word ) {
+        return isKey(word) && retrieve(word).completeMatchQ();
+    }
+
+    //! @description Is a word a key path in the trie.
+    public boolean isKey( List<String> word ) {
+        return word != null && !word.isEmpty() && matchLength(word) == word.size();
+    }
+
+    protected double childrenSum() {
+        double[] sum = {0};
+        forEachChild(ch -> sum[0] += ch.value);
+        return sum[0];
+    }
+
+    //! @description Finds all words in the trie.
+    //! @details See TrieFunctions.getWords; the root key is included in the words.
+    public List<List<String>> getWords() {
+        List<List<String>> res = new ArrayList<>();
+        List<String> path = new ArrayList<>();
+
+        // Nodes to visit and the path lengths before them.
+        Deque<PersistentTrie> nodes = new ArrayDeque<>();
+        Deque<Integer> lengths = new ArrayDeque<>();
+        nodes.push(this);
+        lengths.push(0);
+
+        while (!nodes.isEmpty()) {
+            PersistentTrie node = nodes.pop();
+            int len = lengths.pop();
+
+            path.subList(len, path.size()).clear();
+            path.add(node.key);
+
+            double sum = node.childrenSum();
+            if (node.leafQ() ||
+                    node.value >= 1.0 && sum < node.value ||
+                    node.value < 1.0 && sum + 2.0d * Math.ulp(sum) < 1.0d) {
+                res.add(new ArrayList<>(path));
+            }
+
+            // Pushed in reverse, so the children are visited in forEachChild order.
+            List<PersistentTrie> chs = node.getChildren();
+            for (int i = chs.size() - 1; i >= 0; i--) {
+                nodes.push(chs.get(i));
+                lengths.push(path.size());
+            }
+        }
+
+        return res;
+    }
+
+
+    ///**************************************************************
+    /// Conversion functions
+    ///**************************************************************
+
+    //! @description Converts to a (mutable) trie object.
+    public Trie toTrie() {
+        Trie res = new Trie(key, value);
+
+        Deque<PersistentTrie> pStack = new ArrayDeque<>();
+        Deque<Trie> tStack = new ArrayDeque<>();
+        pStack.push(this);
+        tStack.push(res);
+
+        while (!pStack.isEmpty()) {
+            PersistentTrie node = pStack.pop();
+            Trie t = tStack.pop();
+            if (node.children != null) {
+                Map<String, Trie> resChildren = new HashMap<>();
+                node.forEachChild(ch -> {
+                    Trie tCh = new Trie(ch.key, ch.value);
+                    resChildren.put(ch.key, tCh);
+                    pStack.push(ch);
+                    tStack.push(tCh);
+                });
+                t.setChildren(resChildren);
+            }
+        }
+
+        return res;
+    }
+
+    //! @description Converts a trie object into a persistent trie.
+    public static PersistentTrie fromTrie( Trie tr ) {
+        return TrieTraversal.fold(tr, ( Trie node, int depth, Map<String, PersistentTrie> childResults ) -> {
+            PersistentTrie res = leaf(node.getKey(), node.getDoubleValue());
+            if (childResults != null) {
+                for (PersistentTrie ch : childResults.values()) {
+                    res = res.withChild(ch);
+                }
+            }
+            return res;
+        });
+    }
+
+    //! @description Creates a persistent trie from a list of words.
+    public static PersistentTrie create( List<List<String>> words ) {
+        PersistentTrie res = empty();
+        for (List<String> w : words) {
+            res = res.insert(w);
+        }
+        return res;
+    }
+
+
+    ///**************************************************************
+    /// Hash array mapped trie of the children
+    ///**************************************************************
+
+    private static int hash( String k ) {
+        int h = k == null ? 0 : k.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    //! @description An immutable HAMT node.
+    //! @details The slots are children (PersistentTrie objects), sub-nodes (Node objects),
+    //! or, below the last level, collision arrays (PersistentTrie[] objects) for keys with equal hashes.
+    private static final class Node {
+        Node( int bitmap, Object[] slots ) { this.bitmap = bitmap; this.slots = slots; }
+
+        final int bitmap;
+        final Object[] slots;
+
+        PersistentTrie get( String k, int h, int shift ) {
+            int bit = 1 << ((h >>> shift) & 31);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = slots[Integer.bitCount(bitmap & (bit - 1))];
+            if (slot instanceof Node) {
+                return ((Node) slot).get(k, h, shift + 5);
+            } else if (slot instanceof PersistentTrie) {
+                PersistentTrie ch = (PersistentTrie) slot;
+                return Objects.equals(ch.key, k) ? ch : null;
+            } else {
+                for (PersistentTrie ch : (PersistentTrie[]) slot) {
+                    if (Objects.equals(ch.key, k)) {
+                        return ch;
+                    }
+                }
+                return null;
+            }
+        }
+
+        Node put( PersistentTrie ch, int h, int shift ) {
+            int bit = 1 << ((h >>> shift) & 31);
+            int idx = Integer.bitCount(bitmap & (bit - 1));
+
+            if ((bitmap & bit) == 0) {
+                Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, idx);
+                newSlots[idx] = ch;
+                System.arraycopy(slots, idx, newSlots, idx + 1, slots.length - idx);
+                return new Node(bitmap | bit, newSlots);
+            }
+
+            Object slot = slots[idx];
+            Object newSlot;
+
+            if (slot instanceof Node) {
+                newSlot = ((Node) slot).put(ch, h, shift + 5);
+            } else if (slot instanceof PersistentTrie) {
+                PersistentTrie old = (PersistentTrie) slot;
+                if (Objects.equals(old.key, ch.key)) {
+                    newSlot = ch;
+                } else if (shift + 5 >= 32) {
+                    newSlot = new PersistentTrie[]{old, ch};
+                } else {
+                    newSlot = new Node(0, new Object[0]).put(old, hash(old.key), shift + 5).put(ch, h, shift + 5);
+                }
+            } else {
+                PersistentTrie[] coll = (PersistentTrie[]) slot;
+                PersistentTrie[] newColl = null;
+                for (int i = 0; i < coll.length; i++) {
+                    if (Objects.equals(coll[i].key, ch.key)) {
+                        newColl = coll.clone();
+                        newColl[i] = ch;
+                        break;
+                    }
+                }
+                if (newColl == null) {
+                    newColl = Arrays.copyOf(coll, coll.length + 1);
+                    newColl[coll.length] = ch;
+                }
+                newSlot = newColl;
+            }
+
+            Object[] newSlots = slots.clone();
+            newSlots[idx] = newSlot;
+            return new Node(bitmap, newSlots);
+        }
+
+        void forEach( Consumer<PersistentTrie> func ) {
+            for (Object slot : slots) {
+                if (slot instanceof Node) {
+                    ((Node) slot).forEach(func);
+                } else if (slot instanceof PersistentTrie) {
+                    func.accept((PersistentTrie) slot);
+                } else {
+                    for (PersistentTrie ch : (PersistentTrie[]) slot) {
+                        func.accept(ch);
+                    }
+                }
+            }
+        }
+    }
+}
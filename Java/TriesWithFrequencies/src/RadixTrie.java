@@ -0,0 +1,491 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//! @description Radix (path compressed) trie with frequencies.
+//! @details A node of a radix trie stands for a chain of trie nodes: it has the keys of the chain (the edge tokens)
+//! and the value common to the nodes of the chain. Chains of single children with equal values (not smaller than 1)
+//! are compressed, hence for frequency tries the radix tries have much fewer nodes. Unlike the shrunk tries made by
+//! TrieFunctions.shrink, radix tries are searched with the original words and insertion splits the edges as needed.
+//! The nodes inside an edge have one child with the same value, so they are never complete matches (word ends).
+//! The children are kept in hash maps keyed by the first tokens of their edges.
+public class RadixTrie {
+
+    protected String[] tokens;
+    protected double value;
+    protected Map<String, RadixTrie> children;
+
+    protected RadixTrie( String[] tokens, double value, Map<String, RadixTrie> children ) {
+        this.tokens = tokens;
+        this.value = value;
+        this.children = children;
+    }
+
+    //! @description Makes an empty radix trie, a root with the key "" and the value 0.
+    public RadixTrie() {
+        this(new String[]{""}, 0.0, null);
+    }
+
+    //! @description The key of the node, i.e. the first token of its edge.
+    public String getKey() {
+        return tokens[0];
+    }
+
+    //! @description The tokens of the edge of the node.
+    public List<String> getTokens() {
+        return Arrays.asList(tokens);
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public Map<String, RadixTrie> getChildren() {
+        return children;
+    }
+
+    public boolean leafQ() {
+        return children == null || children.isEmpty();
+    }
+
+    protected double childrenSum() {
+        double sum = 0;
+        if (children != null) {
+            for (RadixTrie ch : children.values()) {
+                sum += ch.value;
+            }
+        }
+        return sum;
+    }
+
+    protected static boolean compressibleQ( double v ) {
+        return v >= 1.0;
+    }
+
+
+    ///**************************************************************
+    /// Creation functions
+    ///**************************************************************
+
+    //! @description Creates a radix trie from a list of words.
+    //! @param words a list of lists of strings
+    public static RadixTrie create( List<List<String>> words ) {
+        RadixTrie res = new RadixTrie();
+        for (List<String> w : words) {
+            res.insert(w);
+        }
+        return res;
+    }
+
+    //! @description Creates a radix trie from a list of strings each of which is split with a regexp.
+    public static RadixTrie createBySplit( List<String> words, String regex ) {
+        return create(TrieFunctions.splitWords(words, regex));
+    }
+
+    //! @description Converts a trie into a radix trie by compressing the chains of single children with equal values.
+    //! @param tr a trie object
+    public static RadixTrie fromTrie( Trie tr ) {
+        return TrieTraversal.fold(tr, ( Trie node, int depth, Map<String, RadixTrie> rChildren ) -> {
+
+            if (rChildren == null) {
+                return new RadixTrie(new String[]{node.getKey()}, node.getDoubleValue(), null);
+            }
+
+            if (depth > 0 && rChildren.size() == 1) {
+                RadixTrie ch = rChildren.values().iterator().next();
+                if (ch.value == node.getDoubleValue() && compressibleQ(ch.value)) {
+                    String[] ts = new String[ch.tokens.length + 1];
+                    ts[0] = node.getKey();
+                    System.arraycopy(ch.tokens, 0, ts, 1, ch.tokens.length);
+                    return new RadixTrie(ts, ch.value, ch.children);
+                }
+            }
+
+            Map<String, RadixTrie> resChildren = new HashMap<>();
+            for (RadixTrie ch : rChildren.values()) {
+                resChildren.put(ch.getKey(), ch);
+            }
+            return new RadixTrie(new String[]{node.getKey()}, node.getDoubleValue(), resChildren);
+        });
+    }
+
+    //! @description Converts the radix trie into a trie object by expanding the edges.
+    public Trie toTrie() {
+        Trie res = expand(this);
+
+        // Pairs of radix nodes and the trie nodes of their last tokens.
+        Deque<RadixTrie> rStack = new ArrayDeque<>();
+        Deque<Trie> tStack = new ArrayDeque<>();
+        rStack.push(this);
+        tStack.push(last(res, tokens.length));
+
+        while (!rStack.isEmpty()) {
+            RadixTrie rNode = rStack.pop();
+            Trie tNode = tStack.pop();
+
+            if (rNode.leafQ()) {
+                continue;
+            }
+
+            Map<String, Trie> tChildren = new HashMap<>();
+            for (RadixTrie ch : rNode.children.values()) {
+                Trie tCh = expand(ch);
+                tChildren.put(ch.getKey(), tCh);
+                rStack.push(ch);
+                tStack.push(last(tCh, ch.tokens.length));
+            }
+            tNode.setChildren(tChildren);
+        }
+
+        return res;
+    }
+
+    //! @description Makes the chain of trie nodes of the edge of a radix node.
+    protected static Trie expand( RadixTrie node ) {
+        Trie res = new Trie(node.tokens[0], node.value);
+        Trie tNode = res;
+        for (int i = 1; i < node.tokens.length; i++) {
+            Trie ch = new Trie(node.tokens[i], node.value);
+            Map<String, Trie> chs = new HashMap<>();
+            chs.put(node.tokens[i], ch);
+            tNode.setChildren(chs);
+            tNode = ch;
+        }
+        return res;
+    }
+
+    protected static Trie last( Trie chain, int n ) {
+        for (int i = 1; i < n; i++) {
+            chain = chain.getChildren().values().iterator().next();
+        }
+        return chain;
+    }
+
+
+    ///**************************************************************
+    /// Insertion
+    ///**************************************************************
+
+    //! @description Splits the edge of the node after a given number of tokens.
+    //! @details The node keeps the first n tokens and gets a single child with the rest of the tokens and the old children.
+    protected void split( int n ) {
+        RadixTrie rest = new RadixTrie(Arrays.copyOfRange(tokens, n, tokens.length), value, children);
+        tokens = Arrays.copyOf(tokens, n);
+        children = new HashMap<>();
+        children.put(rest.getKey(), rest);
+    }
+
+    //! @description Adds a new chain of nodes for the tokens of a word from a given index.
+    protected void addChain( List<String> word, int from, double value, double bottomVal ) {
+        int n = word.size();
+        RadixTrie node = this;
+
+        while (from < n) {
+            // The nodes before the last one get value, the last one gets bottomVal.
+            int to = value == bottomVal || from == n - 1 ? n : n - 1;
+            if (!compressibleQ(from == n - 1 ? bottomVal : value)) {
+                to = from + 1;
+            }
+            double v = to == n ? bottomVal : value;
+
+            RadixTrie ch = new RadixTrie(word.subList(from, to).toArray(new String[0]), v, null);
+            if (node.children == null) {
+                node.children = new HashMap<>();
+            }
+            node.children.put(ch.getKey(), ch);
+
+            node = ch;
+            from = to;
+        }
+    }
+
+    //! @description Inserts a "word" (a list of strings) into the radix trie.
+    //! @param word a list of strings
+    public RadixTrie insert( List<String> word ) {
+        return insert(word, 1.0, 1.0);
+    }
+
+    //! @description Inserts a "word" (a list of strings) into the radix trie.
+    //! @param word a list of strings
+    //! @param value the value to be added to each node of the word path
+    //! @param bottomVal the value to be added to the last node of the word path
+    //! @details The same as TrieFunctions.insertInPlace for the corresponding trie; the edges are split as needed.
+    public RadixTrie insert( List<String> word, double value, double bottomVal ) {
+        if (word == null || word.isEmpty()) {
+            return this;
+        }
+
+        this.value += value;
+
+        RadixTrie node = this;
+        int n = word.size();
+        int i = 0;
+
+        while (i < n) {
+            RadixTrie ch = node.children == null ? null : node.children.get(word.get(i));
+
+            if (ch == null) {
+                node.addChain(word, i, value, bottomVal);
+                return this;
+            }
+
+            // The common length of the edge and the rest of the word.
+            int j = 1;
+            while (j < ch.tokens.length && i + j < n && ch.tokens[j].equals(word.get(i + j))) {
+                j++;
+            }
+
+            if (j < ch.tokens.length) {
+                ch.split(j);
+            }
+
+            if (i + j == n && value != bottomVal && j > 1) {
+                ch.split(j - 1);
+                ch.value += value;
+                RadixTrie bottom = ch.children.values().iterator().next();
+                bottom.value += bottomVal;
+                return this;
+            }
+
+            ch.value += i + j == n ? bottomVal : value;
+            node = ch;
+            i += j;
+        }
+
+        return this;
+    }
+
+
+    ///**************************************************************
+    /// Retrieval functions
+    ///**************************************************************
+
+    //! @description The result of matching a word from the root.
+    protected static class Match {
+        Match( RadixTrie node, int offset, int depth ) { this.node = node; this.offset = offset; this.depth = depth; }
+
+        //! The radix node with the deepest matched token, the index of that token in the edge,
+        //! and the number of matched word elements.
+        public RadixTrie node;
+        public int offset;
+        public int depth;
+
+        public boolean edgeEndQ() {
+            return offset == node.tokens.length - 1;
+        }
+    }
+
+    //! @description Matches a word from the root as far as possible.
+    protected Match seek( List<String> word ) {
+        RadixTrie node = this;
+        int offset = tokens.length - 1;
+        int depth = 0;
+        int n = word == null ? 0 : word.size();
+
+        while (depth < n) {
+            if (offset < node.tokens.length - 1) {
+                if (!node.tokens[offset + 1].equals(word.get(depth))) {
+                    break;
+                }
+                offset++;
+            } else {
+                RadixTrie ch = node.children == null ? null : node.children.get(word.get(depth));
+                if (ch == null) {
+                    break;
+                }
+                node = ch;
+                offset = 0;
+            }
+            depth++;
+        }
+
+        return new Match(node, offset, depth);
+    }
+
+    //! @description Find the position of a given word (or part of it) in the radix trie.
+    //! @details See TrieFunctions.position .
+    public List<String> position( List<String> word ) {
+        if (word == null || word.isEmpty()) {
+            return null;
+        }
+        int depth = seek(word).depth;
+        return depth == 0 ? null : new ArrayList<>(word.subList(0, depth));
+    }
+
+    //! @description Retrieval of a sub-trie corresponding to a "word".
+    //! @details See TrieFunctions.retrieve. If the match ends inside an edge the result is a new node
+    //! with the rest of the edge that shares the children with the matched node.
+    public RadixTrie retrieve( List<String> word ) {
+        Match m = seek(word);
+        if (m.offset == 0) {
+            return m.node;
+        }
+        return new RadixTrie(Arrays.copyOfRange(m.node.tokens, m.offset, m.node.tokens.length), m.node.value, m.node.children);
+    }
+
+    //! @description Is a match a complete match, i.e. a leaf or an end of a word.
+    protected static boolean completeMatchQ( Match m ) {
+        if (!m.edgeEndQ()) {
+            return false;
+        }
+        return m.node.leafQ() || m.node.childrenSum() < m.node.value;
+    }
+
+    //! @description Is the deepest node matched by a word a complete match.
+    public boolean hasCompleteMatch( List<String> word ) {
+        return completeMatchQ(seek(word));
+    }
+
+    //! @description Does the radix trie contain a word (as a complete match).
+    public boolean contains( List<String> word ) {
+        Match m = seek(word);
+        return word != null && !word.isEmpty() && m.depth == word.size() && completeMatchQ(m);
+    }
+
+    //! @description Is a word a key path in the radix trie.
+    public boolean isKey( List<String> word ) {
+        return word != null && !word.isEmpty() && seek(word).depth == word.size();
+    }
+
+
+    ///**************************************************************
+    /// Path functions
+    ///**************************************************************
+
+    //! @description Is the last token of a node an end of a row; see TrieFunctions.rowEndQ .
+    protected boolean rowEndQ() {
+        if (leafQ()) {
+            return true;
+        }
+        double sum = childrenSum();
+        return value >= 1.0 && sum < value ||
+                value < 1.0 && sum + 2.0d * Math.ulp(sum) < 1.0d;
+    }
+
+    //! @description Finds all words in the radix trie; the key of the root is included.
+    //! @details See TrieFunctions.getWords .
+    public List<List<String>> getWords() {
+        return getWords(Collections.emptyList());
+    }
+
+    //! @description Finds all words in the radix trie that start with a given word.
+    //! @details See TrieFunctions.getWords .
+    public List<List<String>> getWords( List<String> sword ) {
+        if (sword.isEmpty()) {
+            return rows(this, Collections.emptyList());
+        }
+
+        List<String> pos = position(sword);
+        if (pos == null || pos.size() < sword.size()) {
+            return null;
+        }
+        return rows(retrieve(sword), pos.subList(0, pos.size() - 1));
+    }
+
+    //! @description The rows of a sub-trie with a prefix; iterative.
+    protected static List<List<String>> rows( RadixTrie start, List<String> prefix ) {
+        List<List<String>> res = new ArrayList<>();
+        List<String> path = new ArrayList<>(prefix);
+
+        // Nodes to visit and the path lengths before them; a null node means "restore the path length".
+        Deque<RadixTrie> nodes = new ArrayDeque<>();
+        Deque<Integer> lengths = new ArrayDeque<>();
+        nodes.push(start);
+        lengths.push(path.size());
+
+        while (!nodes.isEmpty()) {
+            RadixTrie node = nodes.pop();
+            int len = lengths.pop();
+
+            path.subList(len, path.size()).clear();
+            path.addAll(Arrays.asList(node.tokens));
+
+            if (node.rowEndQ()) {
+                res.add(new ArrayList<>(path));
+            }
+
+            if (!node.leafQ()) {
+                for (RadixTrie ch : node.children.values()) {
+                    nodes.push(ch);
+                    lengths.push(path.size());
+                }
+            }
+        }
+
+        return res;
+    }
+
+
+    ///**************************************************************
+    /// Statistics
+    ///**************************************************************
+
+    //! @description The number of radix nodes.
+    public long nodeCount() {
+        long n = 0;
+        Deque<RadixTrie> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            RadixTrie node = stack.pop();
+            n++;
+            if (!node.leafQ()) {
+                stack.addAll(node.children.values());
+            }
+        }
+        return n;
+    }
+
+    //! @description The number of nodes of the corresponding (uncompressed) trie.
+    public long size() {
+        long n = 0;
+        Deque<RadixTrie> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            RadixTrie node = stack.pop();
+            n += node.tokens.length;
+            if (!node.leafQ()) {
+                stack.addAll(node.children.values());
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,121 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.util.*;
+import java.util.function.Function;
+
+//! @description Lazy iterator over the root-to-leaf paths of a trie.
+//! @details The paths are produced in the same order and by the same rule as TrieFunctions.rootToLeafPaths.
+//! A single path buffer is used for the traversal; each path is passed to a function (as a read-only view of
+//! the buffer) that makes the element to be returned, e.g. a list of keys. The function should not keep the view.
+//! The trie should not be changed while it is iterated over.
+public class RootToLeafPathIterator<T> implements Iterator<T> {
+
+    protected Trie root;
+    protected Function<List<Trie>, T> func;
+
+    protected List<Trie> path = new ArrayList<>();
+    protected List<Trie> pathView = Collections.unmodifiableList(path);
+    protected Deque<Iterator<Trie>> childIterators = new ArrayDeque<>();
+
+    protected boolean startedQ = false;
+    protected boolean nextReadyQ = false;
+    protected T next;
+
+    //! @param root a trie object; if null there are no paths
+    //! @param func a function applied to each path
+    public RootToLeafPathIterator( Trie root, Function<List<Trie>, T> func ) {
+        this.root = root;
+        this.func = func;
+    }
+
+    protected void enter( Trie node ) {
+        path.add(node);
+        if (TrieFunctions.leafQ(node)) {
+            childIterators.push(Collections.emptyIterator());
+        } else {
+            childIterators.push(node.getChildren().values().iterator());
+        }
+    }
+
+    //! @description Finds the next path end and makes the next element.
+    protected boolean advance() {
+        if (!startedQ) {
+            startedQ = true;
+            if (root != null) {
+                enter(root);
+                if (TrieFunctions.rowEndQ(root)) {
+                    next = func.apply(pathView);
+                    return true;
+                }
+            }
+        }
+
+        while (!childIterators.isEmpty()) {
+            Iterator<Trie> it = childIterators.peek();
+            if (it.hasNext()) {
+                Trie ch = it.next();
+                enter(ch);
+                if (TrieFunctions.rowEndQ(ch)) {
+                    next = func.apply(pathView);
+                    return true;
+                }
+            } else {
+                childIterators.pop();
+                path.remove(path.size() - 1);
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!nextReadyQ) {
+            nextReadyQ = advance();
+        }
+        return nextReadyQ;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        nextReadyQ = false;
+        T res = next;
+        next = null;
+        return res;
+    }
+}
@@ -0,0 +1,180 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjDoubleConsumer;
+
+//! @description Open addressing hash map from strings to primitive doubles.
+//! @details Used to accumulate sums by key without boxing and without an entry object per key.
+//! Linear probing over power of two tables; a null key is kept separately. Not thread-safe.
+public class StringDoubleMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    protected String[] keys;
+    protected double[] values;
+    protected int size;
+    protected int mask;
+
+    protected boolean nullKeyQ;
+    protected double nullKeyValue;
+
+    public StringDoubleMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    //! @param expectedSize the expected number of keys
+    public StringDoubleMap( int expectedSize ) {
+        int cap = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new String[cap];
+        values = new double[cap];
+        mask = cap - 1;
+    }
+
+    public int size() {
+        return size + (nullKeyQ ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    protected int slot( String key ) {
+        int h = key.hashCode() * 0x9E3779B9;
+        int i = (h ^ (h >>> 16)) & mask;
+        while (keys[i] != null && !keys[i].equals(key)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    public boolean containsKey( String key ) {
+        return key == null ? nullKeyQ : keys[slot(key)] != null;
+    }
+
+    //! @description The value for a key; 0 if the key is not in the map.
+    public double get( String key ) {
+        if (key == null) {
+            return nullKeyValue;
+        }
+        return values[slot(key)];
+    }
+
+    public void put( String key, double value ) {
+        if (key == null) {
+            nullKeyQ = true;
+            nullKeyValue = value;
+            return;
+        }
+        int i = slot(key);
+        if (keys[i] == null) {
+            keys[i] = key;
+            size++;
+            values[i] = value;
+            growIfNeeded();
+        } else {
+            values[i] = value;
+        }
+    }
+
+    //! @description Adds a number to the value for a key; a missing key is added with the number.
+    public void add( String key, double value ) {
+        if (key == null) {
+            nullKeyValue = nullKeyQ ? nullKeyValue + value : value;
+            nullKeyQ = true;
+            return;
+        }
+        int i = slot(key);
+        if (keys[i] == null) {
+            keys[i] = key;
+            size++;
+            values[i] = value;
+            growIfNeeded();
+        } else {
+            values[i] += value;
+        }
+    }
+
+    //! @description Adds the values of another map to the values of this map.
+    public void addAll( StringDoubleMap other ) {
+        other.forEach(this::add);
+    }
+
+    protected void growIfNeeded() {
+        if (size * 4 < keys.length * 3) {
+            return;
+        }
+        String[] oldKeys = keys;
+        double[] oldValues = values;
+        keys = new String[oldKeys.length * 2];
+        values = new double[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != null) {
+                int i = slot(oldKeys[j]);
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, 0);
+        size = 0;
+        nullKeyQ = false;
+        nullKeyValue = 0;
+    }
+
+    //! @description Applies a function to each key-value pair.
+    public void forEach( ObjDoubleConsumer<String> func ) {
+        if (nullKeyQ) {
+            func.accept(null, nullKeyValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                func.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    //! @description Converts to a (boxed) hash map.
+    public Map<String, Double> toMap() {
+        Map<String, Double> res = new HashMap<>(size() * 2);
+        forEach(res::put);
+        return res;
+    }
+}
@@ -32,14 +32,19 @@
 
 package TriesWithFrequencies;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 
 public class Trie {
 
 	protected String key;
-	protected Double value;
+	protected double value;
+	protected boolean valueQ;
 	protected Map<String, Trie> children;
 
 	public String getKey() {
@@ -48,11 +53,28 @@ public class Trie {
 	public void setKey(String key) {
 		this.key = key;
 	}
+	//! @description The node value as an object; null if the value is not set.
+	//! @details The value is kept as a primitive, the functions getDoubleValue and setDoubleValue do not box.
 	public Double getValue() {
-		return value;
+		return this.hasValue() ? this.getDoubleValue() : null;
 	}
 	public void setValue(Double value) {
+		if ( value == null ) {
+			this.value = 0;
+			this.valueQ = false;
+		} else {
+			this.setDoubleValue( value );
+		}
+	}
+	public double getDoubleValue() {
+		return value;
+	}
+	public void setDoubleValue(double value) {
 		this.value = value;
+		this.valueQ = true;
+	}
+	public boolean hasValue() {
+		return valueQ;
 	}
 	public Map<String, Trie> getChildren() {
 		return children;
@@ -68,56 +90,173 @@ public class Trie {
 		this.setValue( value );
 	}
 
+	public Trie( String key, double value ) {
+		this.setKey( key );
+		this.setDoubleValue( value );
+	}
+
 	public Trie( String key, Double value, Map<String,Trie> children ) {
 		this.setKey( key );
 		this.setValue( value );
 		this.setChildren(children);
 	}
 
+	public Trie( String key, double value, Map<String,Trie> children ) {
+		this.setKey( key );
+		this.setDoubleValue( value );
+		this.setChildren(children);
+	}
+
 	protected String toStringRec( int n ) {
-		String offset = "";
-		String childStr = "";
-		int k=0;
-		for ( int i = 0; i < n; i++ ){
-			offset = offset + " ";
+		StringBuilder sb = new StringBuilder();
+		try {
+			this.writeStringRec( sb, n );
+		} catch ( IOException e ) {
+			throw new UncheckedIOException( e );
 		}
-		if ( this.getChildren() != null && !this.getChildren().isEmpty() ) {
-			for ( Trie elem : this.getChildren().values() ) {
-				if ( k == 0  ) {
-					childStr = "\n" + offset + elem.toStringRec( n+1 );
-				} else {
-					childStr = childStr + ",\n" + offset + elem.toStringRec( n+1 );
-				}
-				k++;
+		return sb.toString();
+	}
+
+	//! @description Counts of the written children per level, used by the iterative writers.
+	private static class LevelCounts {
+		private int[] counts = new int[16];
+
+		//! @description Increments the count at a given level and gives the previous count.
+		int next( int level ) {
+			ensure( level );
+			return counts[level]++;
+		}
+
+		void reset( int level ) {
+			ensure( level );
+			counts[level] = 0;
+		}
+
+		private void ensure( int level ) {
+			if ( level >= counts.length ) {
+				counts = Arrays.copyOf( counts, Math.max( 2 * counts.length, level + 1 ) );
 			}
-		} else {
-			childStr = "";
 		}
-		return "[ key=" + this.getKey() + ", value=" + this.getValue() + ", children=" + childStr + "]";
+	}
+
+	protected void writeStringRec( Appendable out, int n ) throws IOException {
+		// Iterative, see TrieTraversal. A node at level d is indented by n + d - 1 spaces.
+		LevelCounts counts = new LevelCounts();
+		try {
+			TrieTraversal.traverse( this, new TrieTraversal.Visitor() {
+				public boolean preVisit( Trie node, int depth ) {
+					try {
+						if ( depth > 0 ) {
+							out.append( counts.next( depth ) == 0 ? "\n" : ",\n" );
+							for ( int i = 0; i < n + depth - 1; i++ ) {
+								out.append( ' ' );
+							}
+						}
+						out.append( "[ key=" ).append( node.getKey() ).append( ", value=" ).append( String.valueOf( node.getValue() ) ).append( ", children=" );
+					} catch ( IOException e ) {
+						throw new UncheckedIOException( e );
+					}
+					counts.reset( depth + 1 );
+					return true;
+				}
+
+				public void postVisit( Trie node, int depth ) {
+					try {
+						out.append( "]" );
+					} catch ( IOException e ) {
+						throw new UncheckedIOException( e );
+					}
+				}
+			} );
+		} catch ( UncheckedIOException e ) {
+			throw e.getCause();
+		}
 	}
 
 	public String toString( ) { 
 		return this.toStringRec( 1 );
 	}
 
+	//! @description Writes the string form of the trie into a given Appendable object (e.g. a Writer).
+	public void writeString( Appendable out ) throws IOException {
+		this.writeStringRec( out, 1 );
+	}
+
+
+	//! @description Writes a string as a JSON string literal, i.e. quoted and escaped.
+	//! @param out an Appendable object
+	//! @param s a string; null is written as "null"
+	public static void writeJSONString( Appendable out, String s ) throws IOException {
+		if ( s == null ) {
+			out.append( "\"null\"" );
+			return;
+		}
+		out.append( '"' );
+		for ( int i = 0; i < s.length(); i++ ) {
+			char c = s.charAt( i );
+			switch ( c ) {
+				case '"': out.append( "\\\"" ); break;
+				case '\\': out.append( "\\\\" ); break;
+				case '\n': out.append( "\\n" ); break;
+				case '\r': out.append( "\\r" ); break;
+				case '\t': out.append( "\\t" ); break;
+				case '\b': out.append( "\\b" ); break;
+				case '\f': out.append( "\\f" ); break;
+				default:
+					if ( c < 0x20 ) {
+						out.append( String.format( "\\u%04x", (int) c ) );
+					} else {
+						out.append( c );
+					}
+			}
+		}
+		out.append( '"' );
+	}
 
 	protected String toJSONRec( int maxLevel, int n ) {
-		String childStr = "";
-		int k = 0;
-		if ( this.getChildren() != null && ( maxLevel < 0 || n <= maxLevel ) ) {
-			for ( Trie elem : this.getChildren().values() ) {
-				if ( k == 0  ) {
-					childStr = elem.toJSONRec( maxLevel,n+1 );
-				} else {
-					childStr = childStr + ", " + elem.toJSONRec( maxLevel,n+1 );
+		StringBuilder sb = new StringBuilder();
+		try {
+			this.writeJSONRec( sb, maxLevel, n );
+		} catch ( IOException e ) {
+			throw new UncheckedIOException( e );
+		}
+		return sb.toString();
+	}
+
+	protected void writeJSONRec( Appendable out, int maxLevel, int n ) throws IOException {
+		// Iterative, see TrieTraversal. A node at level d is written with the level number n + d.
+		LevelCounts counts = new LevelCounts();
+		try {
+			TrieTraversal.traverse( this, new TrieTraversal.Visitor() {
+				public boolean preVisit( Trie node, int depth ) {
+					boolean childrenQ = node.getChildren() != null && ( maxLevel < 0 || n + depth <= maxLevel );
+					try {
+						if ( depth > 0 && counts.next( depth ) > 0 ) {
+							out.append( ", " );
+						}
+						out.append( "{ \"key\":" );
+						writeJSONString( out, node.getKey() );
+						out.append( ", \"value\":" ).append( String.valueOf( node.getValue() ) ).append( ", \"children\":" );
+						out.append( childrenQ ? "[" : "[]" );
+					} catch ( IOException e ) {
+						throw new UncheckedIOException( e );
+					}
+					counts.reset( depth + 1 );
+					return childrenQ;
 				}
-				k++;
-			}
-			childStr = "[" + childStr + "]";
-		} else {
-			childStr = "[]";
+
+				public void postVisit( Trie node, int depth ) {
+					boolean childrenQ = node.getChildren() != null && ( maxLevel < 0 || n + depth <= maxLevel );
+					try {
+						out.append( childrenQ ? "]}" : "}" );
+					} catch ( IOException e ) {
+						throw new UncheckedIOException( e );
+					}
+				}
+			} );
+		} catch ( UncheckedIOException e ) {
+			throw e.getCause();
 		}
-		return "{ \"key\":" + "\"" + this.getKey() +  "\"" + ", \"value\":" + this.getValue() + ", \"children\":" + childStr + "}";
 	}
 
 	public String toJSON( int maxLevel ) {
@@ -128,61 +267,81 @@ public class Trie {
 		return this.toJSONRec( -1, 1 );
 	}
 
-	//! @description Deep copy of a trie.
-	public Trie clone() {
-
-		Trie res = new Trie();
+	//! @description Writes the JSON form of the trie into a given Appendable object (e.g. a buffered Writer).
+	//! @param out an Appendable object
+	//! @param maxLevel the maximum level of the nodes to be written; negative for all levels
+	//! @details The keys are escaped as JSON strings.
+	public void writeJSON( Appendable out, int maxLevel ) throws IOException {
+		this.writeJSONRec( out, maxLevel, 1 );
+	}
 
-		res.setKey( this.getKey() );
-		res.setValue( this.getValue() );
+	public void writeJSON( Appendable out ) throws IOException {
+		this.writeJSONRec( out, -1, 1 );
+	}
 
-		if ( !(this.getChildren() == null || this.getChildren().isEmpty() ) ) {
+	//! @description Deep copy of a trie.
+	public Trie clone() {
 
-			Map<String, Trie> resChildren = new HashMap<>();
+		// Iterative, see TrieTraversal.
+		return TrieTraversal.fold( this, ( Trie node, int depth, Map<String, Trie> resChildren ) -> {
+			Trie res = new Trie();
 
-			for ( Trie elem : this.getChildren().values() ) {
-				resChildren.put( elem.getKey(), elem.clone() );
+			res.setKey( node.getKey() );
+			if ( node.hasValue() ) {
+				res.setDoubleValue( node.getDoubleValue() );
 			}
 
-			res.setChildren( resChildren );
-		}
+			if ( resChildren != null ) {
+				res.setChildren( resChildren );
+			}
 
-		return res;
+			return res;
+		} );
 	}
 
 	//! @description Deep comparison of a trie.
 	public Boolean equals( Trie tr ) {
 
-		if ( !this.getKey().equals( tr.getKey() ) || !this.getValue().equals( tr.getValue() ) ) {
-			return false;
-		}
-
-		Boolean b = !(this.getChildren() == null || this.getChildren().isEmpty() );
-		Boolean bTr = !(tr.getChildren() == null || tr.getChildren().isEmpty() );
+		// Iterative: pairs of nodes to compare.
+		Deque<Trie> stack = new ArrayDeque<>();
+		stack.push( this );
+		stack.push( tr );
 
-		if ( b && bTr ) {
+		while ( !stack.isEmpty() ) {
+			Trie tr2 = stack.pop();
+			Trie tr1 = stack.pop();
 
-			if ( this.getChildren().size() != tr.getChildren().size() ) {
+			if ( !tr1.getKey().equals( tr2.getKey() ) || tr1.hasValue() != tr2.hasValue() ||
+					Double.compare( tr1.getDoubleValue(), tr2.getDoubleValue() ) != 0 ) {
 				return false;
 			}
 
-			for ( Trie elem : this.getChildren().values() ) {
+			Boolean b = !(tr1.getChildren() == null || tr1.getChildren().isEmpty() );
+			Boolean bTr = !(tr2.getChildren() == null || tr2.getChildren().isEmpty() );
 
-				if ( !tr.getChildren().containsKey( elem.getKey() ) ) {
-					return false;
-				}
+			if ( b && bTr ) {
 
-				if ( ! elem.equals( tr.getChildren().get( elem.getKey() ) ) ) {
+				if ( tr1.getChildren().size() != tr2.getChildren().size() ) {
 					return false;
 				}
-			}
 
-			return true;
+				for ( Trie elem : tr1.getChildren().values() ) {
+
+					Trie elem2 = tr2.getChildren().get( elem.getKey() );
 
-		} else if ( b != bTr ) {
+					if ( elem2 == null ) {
+						return false;
+					}
+
+					stack.push( elem );
+					stack.push( elem2 );
+				}
 
-			return false;
+			} else if ( b != bTr ) {
 
+				return false;
+
+			}
 		}
 
 		return true;
@@ -0,0 +1,123 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.util.List;
+
+//! @description A cursor for looking up "words" in a trie.
+//! @details The cursor walks the trie iteratively, once per word, and does not allocate.
+//! After seek it has the matched depth and the deepest matched node, which are sufficient for
+//! position, retrieve, isKey, contains, and hasCompleteMatch. A cursor object can be reused for
+//! many look-ups, but it should not be shared between threads.
+public class TrieCursor {
+
+    protected Trie root;
+    protected Trie node;
+    protected int depth;
+    protected int wordLength;
+
+    //! @description Makes a cursor at the root of a trie.
+    //! @param root a trie object
+    public TrieCursor( Trie root ) {
+        this.root = root;
+        this.node = root;
+    }
+
+    //! @description Walks the trie from the root along a given word as far as possible.
+    //! @param word a list of strings
+    //! @return The number of elements of the word that were matched.
+    public int seek( List<String> word ) {
+        node = root;
+        depth = 0;
+        wordLength = word == null ? 0 : word.size();
+
+        while (depth < wordLength) {
+            if (node.getChildren() == null) {
+                break;
+            }
+            Trie ch = node.getChildren().get(word.get(depth));
+            if (ch == null) {
+                break;
+            }
+            node = ch;
+            depth++;
+        }
+
+        return depth;
+    }
+
+    //! @description The number of word elements matched by the last seek.
+    public int getDepth() {
+        return depth;
+    }
+
+    //! @description The deepest node matched by the last seek; the root if nothing was matched.
+    public Trie getNode() {
+        return node;
+    }
+
+    //! @description The key of the deepest matched node.
+    public String getKey() {
+        return node.getKey();
+    }
+
+    //! @description Was the whole word of the last seek matched.
+    public boolean isKey() {
+        return wordLength > 0 && depth == wordLength;
+    }
+
+    //! @description Is the deepest matched node a complete match, i.e. a leaf or an end of a word.
+    public boolean hasCompleteMatch() {
+        return completeMatchQ(node);
+    }
+
+    //! @description Was the whole word of the last seek matched and it is a complete match.
+    public boolean contains() {
+        return isKey() && completeMatchQ(node);
+    }
+
+    //! @description Is a node a complete match, i.e. a leaf or an end of a word.
+    //! @param tr a trie object
+    public static boolean completeMatchQ( Trie tr ) {
+        if (tr.getChildren() == null || tr.getChildren().isEmpty()) {
+            return true;
+        }
+
+        double chValue = 0;
+        for (Trie ch : tr.getChildren().values()) {
+            chValue += ch.getDoubleValue();
+        }
+
+        return chValue < tr.getDoubleValue();
+    }
+}
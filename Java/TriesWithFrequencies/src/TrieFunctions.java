@@ -32,7 +32,17 @@
 
 package TriesWithFrequencies;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 public class TrieFunctions {
@@ -86,28 +96,84 @@ public class TrieFunctions {
         Trie res = make(words.get(0));
 
         for (int i = 1; i < words.size(); i++) {
-            res = insert(res, words.get(i));
+            res = insertInPlace(res, words.get(i));
         }
 
         return res;
     }
 
+    //! @description The default number of words at or below which create makes a trie without splitting the words.
+    public static final int DEFAULT_SEQUENTIAL_CUTOFF = 15;
+
+    //! @description The default number of words at or below which the parallel create does not fork.
+    public static final int DEFAULT_PARALLEL_CUTOFF = 4096;
+
     //! @description Creates a trie from a given list of list of strings. (Recursively.)
     public static Trie create(List<List<String>> words) {
+        return create(words, DEFAULT_SEQUENTIAL_CUTOFF);
+    }
+
+    //! @description Creates a trie from a given list of list of strings. (Recursively.)
+    //! @param words a list of lists of strings
+    //! @param cutoff the number of words at or below which the words are inserted one by one; values below 1 are taken as 1
+    public static Trie create(List<List<String>> words, int cutoff) {
         if (words == null || words.isEmpty()) {
             return null;
         }
 
-        if (words.size() <= 15) {
+        if (words.size() <= Math.max(1, cutoff)) {
             return create1(words);
         }
 
         return merge(
-                create(words.subList(0, words.size() / 2)),
-                create(words.subList(words.size() / 2, words.size()))
+                create(words.subList(0, words.size() / 2), cutoff),
+                create(words.subList(words.size() / 2, words.size()), cutoff)
         );
     }
 
+    //! @description Fork/join task for the parallel creation of tries.
+    @SuppressWarnings("serial")
+    private static class CreateTask extends RecursiveTask<Trie> {
+        CreateTask(List<List<String>> words, int cutoff) { this.words = words; this.cutoff = cutoff; }
+
+        public List<List<String>> words;
+        public int cutoff;
+
+        @Override
+        protected Trie compute() {
+            if (words.size() <= cutoff) {
+                return create1(words);
+            }
+
+            CreateTask left = new CreateTask(words.subList(0, words.size() / 2), cutoff);
+            CreateTask right = new CreateTask(words.subList(words.size() / 2, words.size()), cutoff);
+
+            left.fork();
+            Trie rightRes = right.compute();
+
+            return merge(left.join(), rightRes);
+        }
+    }
+
+    //! @description Creates a trie from a given list of list of strings using the common fork/join pool.
+    //! @param words a list of lists of strings
+    public static Trie createParallel(List<List<String>> words) {
+        return create(words, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_CUTOFF);
+    }
+
+    //! @description Creates a trie from a given list of list of strings in parallel.
+    //! @param words a list of lists of strings
+    //! @param pool a fork/join pool to run the tasks in
+    //! @param cutoff the number of words at or below which a task creates its trie sequentially
+    //! @details The halves of the list of words are made into tries by separate tasks and then merged.
+    public static Trie create(List<List<String>> words, ForkJoinPool pool, int cutoff) {
+        if (words == null || words.isEmpty()) {
+            return null;
+        }
+
+        return pool.invoke(new CreateTask(words, Math.max(1, cutoff)));
+    }
+
     //! @description Splits each string of a list of strings using a given regex.
     public static List<List<String>> splitWords(List<String> words, String regex) {
         List<List<String>> seqList = new ArrayList<>();
@@ -125,6 +191,25 @@ public class TrieFunctions {
         return splitWords( Arrays.asList( words ), regex );
     }
 
+    //! @description Splits each string of a list of strings using a given regex and interns the obtained tokens.
+    //! @param words a list of strings
+    //! @param regex a splitting pattern
+    //! @param symbols a symbol dictionary
+    //! @details Equal tokens are represented with the same String object, so the trie keys are not duplicated.
+    public static List<List<String>> splitWords(List<String> words, String regex, TrieSymbols symbols) {
+        List<List<String>> seqList = new ArrayList<>();
+
+        for (String s : words) {
+            String[] tokens = s.split(regex);
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = symbols.canonical(tokens[i]);
+            }
+            seqList.add(Arrays.asList(tokens));
+        }
+
+        return seqList;
+    }
+
     //! @description Converts a string array to a string list. (For easier use in rJava.)
     public static List<String> wordArrayToList(String words[] ) {
 
@@ -136,8 +221,72 @@ public class TrieFunctions {
         return create(splitWords(words, regex));
     }
 
+    //! @description Creates in parallel a trie by splitting each of the strings in the given list of strings.
+    //! @param words a list of strings
+    //! @param regex a splitting pattern
+    //! @param pool a fork/join pool to run the tasks in
+    //! @param cutoff the number of words at or below which a task creates its trie sequentially
+    public static Trie createBySplit(List<String> words, String regex, ForkJoinPool pool, int cutoff) {
+        return create(splitWords(words, regex), pool, cutoff);
+    }
+
+    //! @description Creates a trie by splitting each of the strings in the given list of strings.
+    //! @param words a list of strings
+    //! @param regex a splitting pattern
+    //! @param symbols a symbol dictionary used to intern the keys
+    public static Trie createBySplit(List<String> words, String regex, TrieSymbols symbols) {
+        return create(splitWords(words, regex, symbols));
+    }
+
     public static Trie merge(Trie tr1, Trie tr2) {
 
+        // Iterative: the result nodes are made before their children are merged,
+        // the frames on the stack hold the nodes the children of which are still to be merged.
+        Deque<MergeFrame> stack = new ArrayDeque<>();
+
+        Trie res = mergeNode(tr1, tr2, stack);
+
+        while (!stack.isEmpty()) {
+            MergeFrame f = stack.peek();
+
+            if (f.it.hasNext()) {
+                Map.Entry<String, Trie> elem1 = f.it.next();
+                Trie elem2 = f.tr2.getChildren().get(elem1.getKey());
+
+                if (elem2 == null) {
+                    f.res.getChildren().put(elem1.getKey(), elem1.getValue());
+                } else {
+                    f.res.getChildren().put(elem1.getKey(), mergeNode(elem1.getValue(), elem2, stack));
+                }
+
+            } else {
+                stack.pop();
+
+                for (Map.Entry<String, Trie> elem2 : f.tr2.getChildren().entrySet()) {
+
+                    if (f.tr1.getChildren().get(elem2.getKey()) == null) {
+                        f.res.getChildren().put(elem2.getKey(), elem2.getValue());
+                    }
+                }
+            }
+        }
+
+        return res;
+    }
+
+    //! @description A pair of nodes the children of which are being merged.
+    private static class MergeFrame {
+        MergeFrame(Trie tr1, Trie tr2, Trie res) { this.tr1 = tr1; this.tr2 = tr2; this.res = res; it = tr1.getChildren().entrySet().iterator(); }
+
+        public Trie tr1;
+        public Trie tr2;
+        public Trie res;
+        public Iterator<Map.Entry<String, Trie>> it;
+    }
+
+    //! @description Merges two nodes; if the children of the nodes have to be merged a frame is pushed on the stack.
+    private static Trie mergeNode(Trie tr1, Trie tr2, Deque<MergeFrame> stack) {
+
         Trie res = new Trie();
         res.setChildren(new HashMap<>());
 
@@ -156,39 +305,23 @@ public class TrieFunctions {
 
             return res;
 
-        } else if (tr1.getKey().equals(tr2.getKey())) {
+        } else {
 
             if (tr1.getChildren() == null) {
-                tr2.setValue(tr1.getValue() + tr2.getValue());
+                tr2.setDoubleValue(tr1.getDoubleValue() + tr2.getDoubleValue());
                 return tr2;
             } else if (tr2.getChildren() == null) {
-                tr1.setValue(tr1.getValue() + tr2.getValue());
+                tr1.setDoubleValue(tr1.getDoubleValue() + tr2.getDoubleValue());
                 return tr1;
             }
 
             res.setKey(tr1.getKey());
-            res.setValue(tr1.getValue() + tr2.getValue());
-
-            for (Map.Entry<String, Trie> elem1 : tr1.getChildren().entrySet()) {
+            res.setDoubleValue(tr1.getDoubleValue() + tr2.getDoubleValue());
 
-                if (tr2.getChildren().get(elem1.getKey()) == null) {
-                    res.getChildren().put(elem1.getKey(), elem1.getValue());
-                } else {
-                    res.getChildren().put(elem1.getKey(), merge(elem1.getValue(), tr2.getChildren().get(elem1.getKey())));
-                }
-            }
-
-            for (Map.Entry<String, Trie> elem2 : tr2.getChildren().entrySet()) {
-
-                if (tr1.getChildren().get(elem2.getKey()) == null) {
-                    res.getChildren().put(elem2.getKey(), elem2.getValue());
-                }
-            }
+            stack.push(new MergeFrame(tr1, tr2, res));
 
             return res;
         }
-
-        return null;
     }
 
     //! @description Inserts a "word" (a list of strings) into a trie.
@@ -208,42 +341,103 @@ public class TrieFunctions {
         }
     }
 
+    //! @description Inserts a "word" (a list of strings) into a trie by changing the trie.
+    //! @param tr a trie object
+    //! @param word a list of strings
+    public static Trie insertInPlace(Trie tr, List<String> word) {
+        return insertInPlace(tr, word, 1.0, 1.0);
+    }
+
+    //! @description Inserts a "word" (a list of strings) into a trie by changing the trie.
+    //! @param tr a trie object
+    //! @param word a list of strings
+    //! @param value the value to be added to each node of the word path
+    public static Trie insertInPlace(Trie tr, List<String> word, double value) {
+        return insertInPlace(tr, word, value, value);
+    }
+
+    //! @description Inserts a "word" (a list of strings) into a trie by changing the trie.
+    //! @param tr a trie object
+    //! @param word a list of strings
+    //! @param value the value to be added to each node of the word path
+    //! @param bottomVal the value to be added to the last node of the word path
+    //! @return The changed trie; a new trie if tr is null.
+    //! @details The result is the same as the one of insert, but the trie is walked only once
+    //! and new nodes are made only for the part of the word that is not in the trie.
+    public static Trie insertInPlace(Trie tr, List<String> word, double value, double bottomVal) {
+        if (word == null || word.isEmpty()) {
+            return tr;
+        }
+
+        if (tr instanceof ConcurrentTrie) {
+            ((ConcurrentTrie) tr).insert(word, value, bottomVal);
+            return tr;
+        }
+
+        if (tr == null) {
+            tr = new Trie("", 0.0);
+        }
+
+        Trie node = tr;
+        node.setDoubleValue(node.getDoubleValue() + value);
+
+        int n = word.size();
+        for (int i = 0; i < n; i++) {
+            String k = word.get(i);
+
+            if (node.getChildren() == null) {
+                node.setChildren(new HashMap<>());
+            }
+
+            Trie ch = node.getChildren().get(k);
+            if (ch == null) {
+                ch = new Trie(k, 0.0);
+                node.getChildren().put(k, ch);
+            }
+
+            ch.setDoubleValue(ch.getDoubleValue() + (i == n - 1 ? bottomVal : value));
+            node = ch;
+        }
+
+        return tr;
+    }
+
     //! @description Converts the counts (frequencies) at the nodes into node probabilities.
     //! @param tr a trie object
     public static Trie nodeProbabilities(Trie tr) {
         Trie res = nodeProbabilitiesRec(tr);
-        res.setValue(1.0);
+        res.setDoubleValue(1.0);
         return res;
     }
 
-    //! @description Recursive step function for converting node frequencies into node probabilities.
+    //! @description Converts node frequencies into node probabilities. (Iterative, see TrieTraversal.)
     //! @param tr a trie object
     protected static Trie nodeProbabilitiesRec(Trie tr) {
-        double chSum = 0;
 
-        if (tr == null || tr.getChildren() == null || tr.getChildren().isEmpty()) {
-            return new Trie(tr.getKey(), tr.getValue());
-        }
+        return TrieTraversal.fold(tr, (Trie node, int depth, Map<String, Trie> resChildren) -> {
 
-        if (tr.getValue() == 0) {
-            // This is a strange case -- that generally should not happen.
-            chSum = 0;
-            for (Trie ch : tr.getChildren().values()) {
-                chSum += ch.getValue();
+            if (resChildren == null) {
+                return new Trie(node.getKey(), node.getDoubleValue());
             }
-        } else {
-            chSum = tr.getValue();
-        }
 
-        Map<String, Trie> resChildren = new HashMap<>();
+            double chSum = 0;
 
-        for (Map.Entry<String, Trie> elem : tr.getChildren().entrySet()) {
-            Trie chNode = nodeProbabilitiesRec(elem.getValue());
-            chNode.setValue(chNode.getValue() / chSum);
-            resChildren.put(elem.getKey(), chNode);
-        }
+            if (node.getDoubleValue() == 0) {
+                // This is a strange case -- that generally should not happen.
+                chSum = 0;
+                for (Trie ch : node.getChildren().values()) {
+                    chSum += ch.getDoubleValue();
+                }
+            } else {
+                chSum = node.getDoubleValue();
+            }
+
+            for (Trie chNode : resChildren.values()) {
+                chNode.setDoubleValue(chNode.getDoubleValue() / chSum);
+            }
 
-        return new Trie(tr.getKey(), tr.getValue(), resChildren);
+            return new Trie(node.getKey(), node.getDoubleValue(), resChildren);
+        });
     }
 
 
@@ -263,26 +457,11 @@ public class TrieFunctions {
 
         if (word == null || word.isEmpty()) {
             return null;
-        } else {
-            if (tr.getChildren() == null) {
-                return null;
-            }
-
-            Trie pos = tr.getChildren().get(word.get(0));
-            if (pos == null) {
-                return null;
-            } else {
-                List<String> res = new ArrayList<>();
-                res.add(word.get(0));
-                List<String> rpos = position(pos, word.subList(1, word.size()));
-                if (rpos == null || rpos.isEmpty()) {
-                    return res;
-                } else {
-                    res.addAll(rpos);
-                    return res;
-                }
-            }
         }
+
+        int depth = new TrieCursor(tr).seek(word);
+
+        return depth == 0 ? null : new ArrayList<>(word.subList(0, depth));
     }
 
     //! @description Optimization of position over a list of words.
@@ -305,17 +484,12 @@ public class TrieFunctions {
 
         if (word == null || word.isEmpty()) {
             return tr;
-        } else {
-            if (tr.getChildren() == null || tr.getChildren().isEmpty() ) {
-                return tr;
-            }
-            Trie pos = tr.getChildren().get(word.get(0));
-            if (pos == null) {
-                return tr;
-            } else {
-                return retrieve(pos, word.subList(1, word.size()));
-            }
         }
+
+        TrieCursor cursor = new TrieCursor(tr);
+        cursor.seek(word);
+
+        return cursor.getNode();
     }
 
     //! @description Optimization of retrieve over a list of words.
@@ -335,18 +509,7 @@ public class TrieFunctions {
     //! @param word a list of strings
     //! @details Despite the name this function works on the part of the word that can be found in the trie.
     public static Boolean hasCompleteMatch(Trie tr, List<String> word) {
-        Trie subTr = retrieve(tr, word);
-
-        if (subTr.getChildren() == null || subTr.getChildren().isEmpty()) {
-            return true;
-        } else {
-            double chValue = 0;
-            for (Trie ch : subTr.getChildren().values()) {
-                chValue += ch.getValue();
-            }
-
-            return chValue < subTr.getValue();
-        }
+        return TrieCursor.completeMatchQ(retrieve(tr, word));
     }
 
     //! @description Optimization of hasCompleteMatch over a list of words.
@@ -364,12 +527,9 @@ public class TrieFunctions {
     //! @param tr a trie object
     //! @param word a word to be checked
     public static Boolean contains(Trie tr, List<String> word) {
-        List<String> pos = position(tr, word);
-        if (pos == null || pos.size() < word.size()) {
-            return false;
-        } else {
-            return hasCompleteMatch(tr, pos);
-        }
+        TrieCursor cursor = new TrieCursor(tr);
+        cursor.seek(word);
+        return cursor.contains();
     }
 
     //! @description Does the trie object tr contains each of the list of words.
@@ -387,12 +547,9 @@ public class TrieFunctions {
     //! @param tr a trie object
     //! @param word a word to be checked
     public static Boolean isKey(Trie tr, List<String> word) {
-        List<String> pos = position(tr, word);
-        if (pos == null || pos.size() < word.size()) {
-            return false;
-        } else {
-            return true;
-        }
+        TrieCursor cursor = new TrieCursor(tr);
+        cursor.seek(word);
+        return cursor.isKey();
     }
 
     //! @description Does the trie object tr has as keys each of the list of words.
@@ -407,6 +564,179 @@ public class TrieFunctions {
     }
 
 
+    ///**************************************************************
+    /// Batch retrieval functions
+    ///**************************************************************
+
+    //! @description The default number of words at or below which a batch query task does not fork.
+    public static final int DEFAULT_BATCH_CUTOFF = 1024;
+
+    private enum BatchQuery { CONTAINS, IS_KEY, COMPLETE_MATCH, DEPTH, RETRIEVE }
+
+    //! @description Fork/join task for querying a trie with a range of a list of words.
+    //! @details Each leaf task uses one cursor for all of its words.
+    @SuppressWarnings("serial")
+    private static class BatchQueryTask extends RecursiveAction {
+        BatchQueryTask(Trie tr, List<List<String>> words, int from, int to, int cutoff, BatchQuery query,
+                       boolean[] bres, int[] ires, Trie[] tres) {
+            this.tr = tr; this.words = words; this.from = from; this.to = to; this.cutoff = cutoff; this.query = query;
+            this.bres = bres; this.ires = ires; this.tres = tres;
+        }
+
+        public Trie tr;
+        public List<List<String>> words;
+        public int from;
+        public int to;
+        public int cutoff;
+        public BatchQuery query;
+        public boolean[] bres;
+        public int[] ires;
+        public Trie[] tres;
+
+        @Override
+        protected void compute() {
+            if (to - from > cutoff) {
+                int mid = (from + to) >>> 1;
+                invokeAll(
+                        new BatchQueryTask(tr, words, from, mid, cutoff, query, bres, ires, tres),
+                        new BatchQueryTask(tr, words, mid, to, cutoff, query, bres, ires, tres));
+                return;
+            }
+
+            TrieCursor cursor = new TrieCursor(tr);
+
+            for (int i = from; i < to; i++) {
+                List<String> word = words.get(i);
+                cursor.seek(word);
+
+                switch (query) {
+                    case CONTAINS:
+                        bres[i] = cursor.contains();
+                        break;
+                    case IS_KEY:
+                        bres[i] = cursor.isKey();
+                        break;
+                    case COMPLETE_MATCH:
+                        bres[i] = cursor.hasCompleteMatch();
+                        break;
+                    case DEPTH:
+                        ires[i] = cursor.getDepth();
+                        break;
+                    case RETRIEVE:
+                        tres[i] = cursor.getNode();
+                        break;
+                }
+            }
+        }
+    }
+
+    private static void batchQuery(Trie tr, List<List<String>> words, ForkJoinPool pool, int cutoff, BatchQuery query,
+                                   boolean[] bres, int[] ires, Trie[] tres) {
+        // The tasks access the words by index.
+        if (!(words instanceof RandomAccess)) {
+            words = new ArrayList<>(words);
+        }
+
+        BatchQueryTask task = new BatchQueryTask(tr, words, 0, words.size(), Math.max(1, cutoff), query, bres, ires, tres);
+
+        if (words.size() <= cutoff) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    //! @description Does the trie object tr contains each of the list of words. (In parallel.)
+    //! @param tr a trie object
+    //! @param words a list of words
+    public static boolean[] batchContains(Trie tr, List<List<String>> words) {
+        return batchContains(tr, words, ForkJoinPool.commonPool(), DEFAULT_BATCH_CUTOFF);
+    }
+
+    //! @description Does the trie object tr contains each of the list of words. (In parallel.)
+    //! @param tr a trie object
+    //! @param words a list of words
+    //! @param pool a fork/join pool to run the tasks in
+    //! @param cutoff the number of words at or below which a task does not fork
+    public static boolean[] batchContains(Trie tr, List<List<String>> words, ForkJoinPool pool, int cutoff) {
+        boolean[] res = new boolean[words.size()];
+        batchQuery(tr, words, pool, cutoff, BatchQuery.CONTAINS, res, null, null);
+        return res;
+    }
+
+    //! @description Does the trie object tr has as keys each of the list of words. (In parallel.)
+    //! @param tr a trie object
+    //! @param words a list of words
+    public static boolean[] batchIsKey(Trie tr, List<List<String>> words) {
+        return batchIsKey(tr, words, ForkJoinPool.commonPool(), DEFAULT_BATCH_CUTOFF);
+    }
+
+    //! @description Does the trie object tr has as keys each of the list of words. (In parallel.)
+    //! @param tr a trie object
+    //! @param words a list of words
+    //! @param pool a fork/join pool to run the tasks in
+    //! @param cutoff the number of words at or below which a task does not fork
+    public static boolean[] batchIsKey(Trie tr, List<List<String>> words, ForkJoinPool pool, int cutoff) {
+        boolean[] res = new boolean[words.size()];
+        batchQuery(tr, words, pool, cutoff, BatchQuery.IS_KEY, res, null, null);
+        return res;
+    }
+
+    //! @description hasCompleteMatch over a list of words. (In parallel.)
+    //! @param tr a trie object
+    //! @param words a list of words
+    public static boolean[] batchHasCompleteMatch(Trie tr, List<List<String>> words) {
+        return batchHasCompleteMatch(tr, words, ForkJoinPool.commonPool(), DEFAULT_BATCH_CUTOFF);
+    }
+
+    //! @description hasCompleteMatch over a list of words. (In parallel.)
+    //! @param tr a trie object
+    //! @param words a list of words
+    //! @param pool a fork/join pool to run the tasks in
+    //! @param cutoff the number of words at or below which a task does not fork
+    public static boolean[] batchHasCompleteMatch(Trie tr, List<List<String>> words, ForkJoinPool pool, int cutoff) {
+        boolean[] res = new boolean[words.size()];
+        batchQuery(tr, words, pool, cutoff, BatchQuery.COMPLETE_MATCH, res, null, null);
+        return res;
+    }
+
+    //! @description The lengths of the positions of a list of words. (In parallel.)
+    //! @param tr a trie object
+    //! @param words a list of words
+    //! @details The position of the i-th word is its prefix of length equal to the i-th element of the result.
+    public static int[] batchPositionLengths(Trie tr, List<List<String>> words) {
+        return batchPositionLengths(tr, words, ForkJoinPool.commonPool(), DEFAULT_BATCH_CUTOFF);
+    }
+
+    //! @description The lengths of the positions of a list of words. (In parallel.)
+    //! @param tr a trie object
+    //! @param words a list of words
+    //! @param pool a fork/join pool to run the tasks in
+    //! @param cutoff the number of words at or below which a task does not fork
+    public static int[] batchPositionLengths(Trie tr, List<List<String>> words, ForkJoinPool pool, int cutoff) {
+        int[] res = new int[words.size()];
+        batchQuery(tr, words, pool, cutoff, BatchQuery.DEPTH, null, res, null);
+        return res;
+    }
+
+    //! @description Retrieval of the sub-tries corresponding to a list of words. (In parallel.)
+    //! @param tr a trie object
+    //! @param words a list of words
+    public static Trie[] batchRetrieve(Trie tr, List<List<String>> words) {
+        return batchRetrieve(tr, words, ForkJoinPool.commonPool(), DEFAULT_BATCH_CUTOFF);
+    }
+
+    //! @description Retrieval of the sub-tries corresponding to a list of words. (In parallel.)
+    //! @param tr a trie object
+    //! @param words a list of words
+    //! @param pool a fork/join pool to run the tasks in
+    //! @param cutoff the number of words at or below which a task does not fork
+    public static Trie[] batchRetrieve(Trie tr, List<List<String>> words, ForkJoinPool pool, int cutoff) {
+        Trie[] res = new Trie[words.size()];
+        batchQuery(tr, words, pool, cutoff, BatchQuery.RETRIEVE, null, null, res);
+        return res;
+    }
+
 
     ///**************************************************************
     /// Path derivation and retrieval functions
@@ -440,43 +770,62 @@ public class TrieFunctions {
         }
 
         public String toJSON() {
-            return "{ \"key\" : \"" + getKey() + "\"" + ", \"value\" : " + getValue() + "}";
+            StringBuilder sb = new StringBuilder();
+            try {
+                writeJSON(sb);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return sb.toString();
+        }
+
+        public void writeJSON(Appendable out) throws IOException {
+            out.append("{ \"key\" : ");
+            Trie.writeJSONString(out, String.valueOf(getKey()));
+            out.append(", \"value\" : ").append(String.valueOf(getValue())).append("}");
         }
     }
 
-    //! @description Converts to rows a trie for a given path.
-    protected static void toRows(
-            List<List<Map.Entry<String, Double>>> rows,
-            Trie tr,
-            List<Map.Entry<String, Double>> path) {
+    //! @description Should the path to a node be a row, i.e. does a word end at the node.
+    //! @param tr a trie object
+    //! @details True for leaves and for internal nodes with values larger than the sums of their children values.
+    protected static boolean rowEndQ(Trie tr) {
+        if (tr.getChildren() == null || tr.getChildren().isEmpty() ) {
+            return true;
+        }
 
-        List<Map.Entry<String, Double>> currentPath = new ArrayList<>();
-        currentPath.addAll(path);
-        currentPath.add(new Pair(tr.getKey(), tr.getValue()));
+        double sum = 0;
 
-        if (tr.getChildren() == null || tr.getChildren().isEmpty() ) {
+        for (Trie ch : tr.getChildren().values()) {
+            sum += ch.getDoubleValue();
+        }
 
-            rows.add(currentPath);
+        return tr.getDoubleValue() >= 1.0 &&  sum < tr.getDoubleValue() ||
+                tr.getDoubleValue() < 1.0 && sum + 2.0d * Math.ulp(sum) < 1.0d;
+    }
 
-        } else {
+    //! @description Converts to rows a trie for a given path. (Iterative, see TrieTraversal.)
+    protected static void toRows(
+            List<List<Map.Entry<String, Double>>> rows,
+            Trie tr,
+            List<Map.Entry<String, Double>> path) {
 
-            double sum = 0;
+        List<Map.Entry<String, Double>> currentPath = new ArrayList<>(path);
 
-            for (Trie ch : tr.getChildren().values()) {
-                sum += ch.getValue();
-            }
+        TrieTraversal.traverse(tr, new TrieTraversal.Visitor() {
+            public boolean preVisit(Trie node, int depth) {
+                currentPath.add(new Pair(node.getKey(), node.getValue()));
 
-            //System.out.println( sum + " " + tr.getValue() );
-            if ( tr.getValue() >= 1.0 &&  sum < tr.getValue() ||
-                    tr.getValue() < 1.0 && sum + 2.0d * Math.ulp(sum) < 1.0d ) {
-                rows.add(currentPath);
+                if ( rowEndQ(node) ) {
+                    rows.add(new ArrayList<>(currentPath));
+                }
+                return true;
             }
 
-            for (Trie ch : tr.getChildren().values()) {
-                toRows(rows, ch, currentPath);
+            public void postVisit(Trie node, int depth) {
+                currentPath.remove(currentPath.size() - 1);
             }
-
-        }
+        });
     }
 
     //! @description Finds the paths from the root of a trie to the leaves.
@@ -490,6 +839,29 @@ public class TrieFunctions {
         return rows;
     }
 
+    //! @description Lazy iterator over the paths from the root of a trie to the leaves.
+    //! @param tr a trie object
+    //! @details Gives the same paths as rootToLeafPaths, one at a time.
+    public static Iterator<List<Map.Entry<String, Double>>> rootToLeafPathsIterator(Trie tr) {
+        return new RootToLeafPathIterator<>(tr, path -> {
+            List<Map.Entry<String, Double>> res = new ArrayList<>(path.size());
+            for (Trie node : path) {
+                res.add(new Pair<>(node.getKey(), node.getValue()));
+            }
+            return res;
+        });
+    }
+
+    //! @description Lazy stream of the paths from the root of a trie to the leaves.
+    //! @param tr a trie object
+    public static Stream<List<Map.Entry<String, Double>>> rootToLeafPathsStream(Trie tr) {
+        return toStream(rootToLeafPathsIterator(tr));
+    }
+
+    protected static <T> Stream<T> toStream(Iterator<T> it) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
     //! @description Converts a list of root-to-leaf paths into a list of root-to-leaf keys.
     //! @param paths a list of lists with Map.Entry elements
     public static List< List< String > > pathsKeys( List<List<Map.Entry<String, Double>>> paths ) {
@@ -545,28 +917,41 @@ public class TrieFunctions {
     //! @description Converts a list of root-to-leaf paths into JSON.
     //! @param paths a list of lists with Map.Entry elements
     public static String pathsToJSON(List<List<Map.Entry<String, Double>>> paths) {
-        String res;
+        StringBuilder sb = new StringBuilder();
+        try {
+            writePathsJSON(sb, paths);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    //! @description Writes a list of root-to-leaf paths as JSON into an Appendable object (e.g. a buffered Writer).
+    //! @param out an Appendable object
+    //! @param paths a list of lists with Map.Entry elements
+    public static void writePathsJSON(Appendable out, List<List<Map.Entry<String, Double>>> paths) throws IOException {
         int k = 0;
 
-        res = "[";
+        out.append("[");
         for (List<Map.Entry<String, Double>> ps : paths) {
             if (k > 0) {
-                res += ",";
+                out.append(",");
             }
             k++;
-            res += "[";
+            out.append("[");
             int g = 0;
             for (Map.Entry<String, Double> p : ps) {
                 if (g > 0) {
-                    res += ",";
+                    out.append(",");
                 }
                 g++;
-                res += "{ \"key\" : \"" + p.getKey() + "\"" + ", \"value\" : " + p.getValue() + "}";
+                out.append("{ \"key\" : ");
+                Trie.writeJSONString(out, String.valueOf(p.getKey()));
+                out.append(", \"value\" : ").append(String.valueOf(p.getValue())).append("}");
             }
-            res += "]";
+            out.append("]");
         }
-        res += "]";
-        return res;
+        out.append("]");
     }
 
 
@@ -623,6 +1008,51 @@ public class TrieFunctions {
     }
 
 
+    //! @description Lazy iterator over the words of a trie with a given prefix.
+    //! @param prefix the keys to be put before the keys of each path
+    protected static Iterator<List<String>> wordsIterator(Trie tr, List<String> prefix) {
+        return new RootToLeafPathIterator<>(tr, path -> {
+            List<String> w = new ArrayList<>(prefix.size() + path.size());
+            w.addAll(prefix);
+            for (Trie node : path) {
+                w.add(node.getKey());
+            }
+            return w;
+        });
+    }
+
+    //! @description Lazy iterator over all words in the trie tr.
+    //! @param tr a trie object
+    //! @details Gives the same words as getWords, one at a time.
+    public static Iterator<List<String>> getWordsIterator(Trie tr) {
+        return wordsIterator(tr, Collections.emptyList());
+    }
+
+    //! @description Lazy iterator over the words in the trie tr that start with the word sword.
+    //! @param tr a trie object
+    //! @param sword search word
+    //! @details If the search word is not in the trie the iterator is empty. (getWords gives null.)
+    public static Iterator<List<String>> getWordsIterator(Trie tr, List<String> sword) {
+        if (!isKey(tr, sword)) {
+            return Collections.emptyIterator();
+        }
+        return wordsIterator(retrieve(tr, sword), sword.subList(0, sword.size() - 1));
+    }
+
+    //! @description Lazy stream of all words in the trie tr.
+    //! @param tr a trie object
+    public static Stream<List<String>> getWordsStream(Trie tr) {
+        return toStream(getWordsIterator(tr));
+    }
+
+    //! @description Lazy stream of the words in the trie tr that start with the word sword.
+    //! @param tr a trie object
+    //! @param sword search word
+    public static Stream<List<String>> getWordsStream(Trie tr, List<String> sword) {
+        return toStream(getWordsIterator(tr, sword));
+    }
+
+
     //! @description Transforms a list of root-to-leaves paths into a list of word-probability pairs.
     //! @param paths
     public static List< Map.Entry< List<String>, Double > > pathsToWordsWithProbabilities( List<List<Map.Entry<String, Double>>> paths ) {
@@ -645,8 +1075,18 @@ public class TrieFunctions {
         return res;
     }
 
+    //! @description Finds the k most probable root-to-leaf paths.
+    //! @param tr a trie object
+    //! @param k number of paths
+    //! @return A list of at most k word-probability pairs in descending order of the probabilities.
+    //! @details For tries with node values in [0,1] (e.g. made with nodeProbabilities) the best-first search is used;
+    //! otherwise all paths are found and sorted. If there are less than k paths all of them are returned.
     public static List< Map.Entry< List<String>, Double > > topRootToLeafPaths( Trie tr, int k ) {
 
+        if ( tr != null && k > 0 && unitValuesQ( tr ) ) {
+            return topRootToLeafPaths( tr, k, null, 0.0 );
+        }
+
         List< Map.Entry< List<String>, Double > > res = new ArrayList<>();
 
         List< List< Map.Entry<String,Double> > > paths = rootToLeafPaths( tr );
@@ -654,15 +1094,126 @@ public class TrieFunctions {
         List< Map.Entry< List<String>, Double > > wpPairs = pathsToWordsWithProbabilities( paths );
 
         // Sorting in descending order
-        Collections.sort( wpPairs, (a,b) -> a.getValue() > b.getValue() ? -1 : a.getValue() == b.getValue() ? 0 : 1 );
+        Collections.sort( wpPairs, (a,b) -> Double.compare( b.getValue(), a.getValue() ) );
 
-        for( int i=0; i < k; i++ ) {
+        for( int i=0; i < Math.min( k, wpPairs.size() ); i++ ) {
             res.add( wpPairs.get(i) );
         }
 
         return res;
     }
 
+    //! @description Are all node values of a trie in [0,1].
+    protected static boolean unitValuesQ( Trie tr ) {
+        boolean[] res = {true};
+        TrieTraversal.traverse( tr, (node, depth) -> {
+            double v = node.getDoubleValue();
+            res[0] = res[0] && v >= 0 && v <= 1;
+            return res[0];
+        });
+        return res[0];
+    }
+
+    //! @description A node of the best-first search over trie paths.
+    private static class PathSearchNode {
+        PathSearchNode(Trie node, PathSearchNode parent, double prob, boolean completeQ) {
+            this.node = node; this.parent = parent; this.prob = prob; this.completeQ = completeQ;
+        }
+
+        public Trie node;
+        public PathSearchNode parent;
+        public double prob;
+        public boolean completeQ;
+
+        public List<String> keys(List<String> prefix) {
+            LinkedList<String> res = new LinkedList<>();
+            for (PathSearchNode sn = this; sn != null; sn = sn.parent) {
+                res.addFirst(sn.node.getKey());
+            }
+            res.addAll(0, prefix);
+            return new ArrayList<>(res);
+        }
+    }
+
+    //! @description Finds the k most probable root-to-leaf paths using best-first search.
+    //! @param tr a trie object with node probabilities
+    //! @param k number of paths
+    public static List< Map.Entry< List<String>, Double > > topRootToLeafPaths( Trie tr, int k, double minProb ) {
+        return topRootToLeafPaths( tr, k, null, minProb );
+    }
+
+    //! @description Finds the k most probable root-to-leaf paths that start with a given word using best-first search.
+    //! @param tr a trie object with node probabilities
+    //! @param k number of paths
+    //! @param sword search word; if null or empty all paths are considered
+    //! @param minProb paths with probabilities smaller than minProb are not considered
+    //! @return A list of at most k word-probability pairs in descending order of the probabilities.
+    //! @details The path probabilities are products of the node values from the root, as in pathsToWordsWithProbabilities.
+    //! Only the most probable frontier nodes are expanded and the search stops when k paths are found.
+    //! The result is exact when the node values are not larger than 1, e.g. for tries made with nodeProbabilities.
+    //! If there are less than k paths all of them are returned.
+    public static List< Map.Entry< List<String>, Double > > topRootToLeafPaths( Trie tr, int k, List<String> sword, double minProb ) {
+
+        List< Map.Entry< List<String>, Double > > res = new ArrayList<>();
+
+        if ( tr == null || k <= 0 ) {
+            return res;
+        }
+
+        Trie start = tr;
+        double startProb = tr.getDoubleValue();
+        List<String> prefix = Collections.emptyList();
+
+        if ( sword != null && !sword.isEmpty() ) {
+            TrieCursor cursor = new TrieCursor(tr);
+            if ( cursor.seek(sword) < sword.size() ) {
+                return res;
+            }
+
+            start = cursor.getNode();
+            prefix = new ArrayList<>();
+            prefix.add(tr.getKey());
+            prefix.addAll(sword.subList(0, sword.size() - 1));
+
+            Trie node = tr;
+            for ( String s : sword ) {
+                node = node.getChildren().get(s);
+                startProb *= node.getDoubleValue();
+            }
+        }
+
+        if ( startProb < minProb ) {
+            return res;
+        }
+
+        PriorityQueue<PathSearchNode> queue = new PriorityQueue<>( (a, b) -> Double.compare( b.prob, a.prob ) );
+        queue.add( new PathSearchNode( start, null, startProb, false ) );
+
+        while ( !queue.isEmpty() && res.size() < k ) {
+            PathSearchNode sn = queue.poll();
+
+            if ( sn.completeQ ) {
+                res.add( new Pair<>( sn.keys(prefix), sn.prob ) );
+                continue;
+            }
+
+            if ( rowEndQ( sn.node ) ) {
+                queue.add( new PathSearchNode( sn.node, sn.parent, sn.prob, true ) );
+            }
+
+            if ( !leafQ( sn.node ) ) {
+                for ( Trie ch : sn.node.getChildren().values() ) {
+                    double p = sn.prob * ch.getDoubleValue();
+                    if ( p >= minProb ) {
+                        queue.add( new PathSearchNode( ch, sn, p, false ) );
+                    }
+                }
+            }
+        }
+
+        return res;
+    }
+
 
     ///**************************************************************
     /// Conversion to probabilities functions
@@ -672,83 +1223,189 @@ public class TrieFunctions {
     //! @description Gives JSON form of the probabilities to reach leaves of the trie.
     //! @param tr the trie to find the leaf probabilities for
     public static String leafProbabilitiesJSON( Trie tr ) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeLeafProbabilitiesJSON(sb, tr);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    //! @description Writes the JSON form of the probabilities to reach leaves of the trie into an Appendable object.
+    //! @param out an Appendable object (e.g. a buffered Writer)
+    //! @param tr the trie to find the leaf probabilities for
+    public static void writeLeafProbabilitiesJSON( Appendable out, Trie tr ) throws IOException {
 
         Map<String, Double> leafValHash = leafProbabilities(tr);
 
-        String res = "[";
+        out.append("[");
 
+        int k = 0;
         for( Map.Entry<String, Double> elem : leafValHash.entrySet() ) {
-            if (res.length() > 1 ) { res = res + ", "; }
-            Pair<String, Double> p = new Pair( elem.getKey(), elem.getValue() );
-            res = res + p.toJSON();
+            if ( k > 0 ) { out.append(", "); }
+            k++;
+            out.append("{ \"key\" : ");
+            Trie.writeJSONString(out, String.valueOf(elem.getKey()));
+            out.append(", \"value\" : ").append(String.valueOf(elem.getValue())).append("}");
         }
-        res = res + "]";
-
-        return res;
+        out.append("]");
     }
 
 
     //! @description Gives the probabilities to end up at each of the leaves by paths from the root of the trie.
     //! @param tr the trie to find the leaf probabilities for
     public static Map<String, Double> leafProbabilities( Trie tr ) {
+        return leafProbabilities(tr, false);
+    }
 
-        Map<String, Double> res = new HashMap<String, Double>();
-
-        List< Pair<String, Double> > probList = leafProbabilitiesRec(tr, 0);
-
-        for( Pair<String, Double> p : probList ) {
-            if ( ! res.containsKey( p.getKey() ) ) {
-                res.put( p.getKey(), p.getValue() );
-            } else {
-                res.put( p.getKey(), res.get( p.getKey() ) + p.getValue() );
-            }
+    //! @description Gives the probabilities to end up at each of the leaves by paths from the root of the trie.
+    //! @param tr the trie to find the leaf probabilities for
+    //! @param parallelQ should the sub-tries be processed in parallel (in the common fork-join pool)
+    public static Map<String, Double> leafProbabilities( Trie tr, boolean parallelQ ) {
+        if ( parallelQ ) {
+            return leafProbabilities(tr, ForkJoinPool.commonPool()).toMap();
         }
 
-        return res;
+        StringDoubleMap res = new StringDoubleMap();
+        if ( tr != null ) {
+            leafProbabilitiesRec(res, tr, tr.getDoubleValue());
+        }
+        return res.toMap();
     }
 
-    //! @description Recursive function to find the leaf probabilities.
-    //! @param tr a trie object
-    //! @param level the level of recursion
-    //! @param leafValHash a hash map to store the result
-    //! @param prob current probability
-    protected static List< Pair<String, Double> > leafProbabilitiesRec( Trie tr, int level) {
+    //! @description Gives the probabilities to end up at each of the leaves by paths from the root of the trie.
+    //! @param tr the trie to find the leaf probabilities for
+    //! @param pool a fork-join pool to process the sub-tries in
+    //! @details The nodes of the top levels are expanded until there are enough sub-tries for the pool,
+    //! the leaf probabilities of the sub-tries are found in parallel and summed.
+    public static StringDoubleMap leafProbabilities( Trie tr, ForkJoinPool pool ) {
+
+        StringDoubleMap res = new StringDoubleMap();
+        if ( tr == null ) { return res; }
+
+        List<Trie> frontier = new ArrayList<>();
+        List<Double> frontierProbs = new ArrayList<>();
+        frontier.add(tr);
+        frontierProbs.add(tr.getDoubleValue());
+
+        int minTasks = 8 * pool.getParallelism();
+        boolean expandedQ = true;
+
+        while ( frontier.size() < minTasks && expandedQ ) {
+            expandedQ = false;
+            List<Trie> nextFrontier = new ArrayList<>();
+            List<Double> nextProbs = new ArrayList<>();
+
+            for ( int i = 0; i < frontier.size(); i++ ) {
+                Trie node = frontier.get(i);
+                double prob = frontierProbs.get(i);
+
+                if ( leafQ(node) ) {
+                    nextFrontier.add(node);
+                    nextProbs.add(prob);
+                    continue;
+                }
 
-        //System.out.println( tr.getKey()  + ", atLevel = " + atLevel + ", level = " + level );
-        if ( tr == null ) { return null; }
+                expandedQ = true;
+                double chSum = 0.0;
+                for ( Trie ch : node.getChildren().values() ) {
+                    chSum += ch.getDoubleValue();
+                    nextFrontier.add(ch);
+                    nextProbs.add(prob * ch.getDoubleValue());
+                }
 
-        List< Pair<String, Double> > res = new ArrayList<>();
+                if ( chSum < 1.0 && node.getKey() != null ) {
+                    res.add(node.getKey(), (1 - chSum) * prob);
+                }
+            }
 
-        if ( tr.getChildren() == null || tr.getChildren().size() == 0 ) {
+            frontier = nextFrontier;
+            frontierProbs = nextProbs;
+        }
 
-            res.add( new Pair( tr.getKey(), tr.getValue() ) );
+        double[] probs = new double[frontierProbs.size()];
+        for ( int i = 0; i < probs.length; i++ ) {
+            probs[i] = frontierProbs.get(i);
+        }
 
-            return res;
+        res.addAll(pool.invoke(new LeafProbabilitiesTask(frontier, probs, 0, probs.length)));
+        return res;
+    }
 
-        } else {
+    //! @description Finds the leaf probabilities of a range of sub-tries by splitting the range in halves.
+    @SuppressWarnings("serial")
+    private static class LeafProbabilitiesTask extends RecursiveTask<StringDoubleMap> {
+        LeafProbabilitiesTask( List<Trie> ns, double[] ps, int lo, int hi ) { nodes = ns; probs = ps; this.lo = lo; this.hi = hi; }
 
-            double chSum = 0.0;
+        public List<Trie> nodes;
+        public double[] probs;
+        public int lo;
+        public int hi;
 
-            for ( Trie ch : tr.getChildren().values() ) {
-                chSum += ch.getValue();
-                res.addAll( leafProbabilitiesRec( ch, level + 1 ) );
+        protected StringDoubleMap compute() {
+            if ( hi - lo <= 1 ) {
+                StringDoubleMap res = new StringDoubleMap();
+                for ( int i = lo; i < hi; i++ ) {
+                    leafProbabilitiesRec(res, nodes.get(i), probs[i]);
+                }
+                return res;
             }
 
-            // System.out.println( tr.getKey() + ", chSum = " + chSum + ", level = " + level );
+            int mid = (lo + hi) >>> 1;
+            LeafProbabilitiesTask left = new LeafProbabilitiesTask(nodes, probs, lo, mid);
+            left.fork();
+            StringDoubleMap res = new LeafProbabilitiesTask(nodes, probs, mid, hi).compute();
+            StringDoubleMap resLeft = left.join();
 
-            if ( chSum < 1.0 && tr.getKey() != null ) {
-                res.add( new Pair( tr.getKey(), (1 - chSum) ) );
+            if ( resLeft.size() < res.size() ) {
+                res.addAll(resLeft);
+                return res;
             }
+            resLeft.addAll(res);
+            return resLeft;
+        }
+    }
+
+    //! @description Finds the leaf probabilities. (Iterative, see TrieTraversal.)
+    //! @param res a map to accumulate the result into
+    //! @param tr a trie object
+    //! @param prob the product of the values from the root to the node (inclusive)
+    protected static void leafProbabilitiesRec( StringDoubleMap res, Trie tr, double prob ) {
+
+        // The products of the values from the root to the nodes on the current path.
+        double[][] probs = { new double[16] };
 
-            List< Pair<String, Double> > res2 = new ArrayList<>();
+        TrieTraversal.traverse( tr, new TrieTraversal.Visitor() {
+            public boolean preVisit( Trie node, int depth ) {
+                if ( depth >= probs[0].length ) {
+                    probs[0] = Arrays.copyOf( probs[0], 2 * probs[0].length );
+                }
+                double p = depth == 0 ? prob : probs[0][depth - 1] * node.getDoubleValue();
+                probs[0][depth] = p;
 
-            for( Pair<String, Double> elem : res ) {
-                res2.add( new Pair( elem.getKey(), elem.getValue() * tr.getValue() ) );
+                if ( node.getChildren() == null || node.getChildren().isEmpty() ) {
+                    res.add( node.getKey(), p );
+                    return false;
+                }
+                return true;
             }
 
-            return res2;
-        }
+            public void postVisit( Trie node, int depth ) {
+                if ( node.getChildren() == null || node.getChildren().isEmpty() ) {
+                    return;
+                }
 
+                double chSum = 0.0;
+                for ( Trie ch : node.getChildren().values() ) {
+                    chSum += ch.getDoubleValue();
+                }
+
+                if ( chSum < 1.0 && node.getKey() != null ) {
+                    res.add( node.getKey(), (1 - chSum) * probs[0][depth] );
+                }
+            }
+        });
     }
 
 
@@ -783,72 +1440,71 @@ public class TrieFunctions {
         return shrinkRec(tr, delimiter, threshold, true, 0);
     }
 
-    //! @description Shrinking recursive function.
+    //! @description Shrinking function. (Iterative, see TrieTraversal.)
     //! @param tr a trie object
     //! @param delimiter a delimiter for the concatenation of the node keys
     //! @param threshold if negative automatic shrinking test is applied
-    //! @param n recursion level
+    //! @param n level of the trie object
     protected static Trie shrinkRec(Trie tr, String delimiter, double threshold, boolean internalOnly, int n) {
-        Trie trRes = new Trie();
-        Boolean rootQ = ((n == 0) && tr.getKey().equals(""));
 
-        if (tr.getChildren() == null || tr.getChildren().isEmpty()) {
+        return TrieTraversal.fold(tr, (Trie node, int depth, Map<String, Trie> shrunkChildren) -> {
+            Trie trRes = new Trie();
+            Boolean rootQ = ((n + depth == 0) && node.getKey().equals(""));
 
-            return tr;
+            if (shrunkChildren == null) {
 
-        } else if (!rootQ && tr.getChildren().size() == 1) {
-            List<Trie> arr = new ArrayList<Trie>(tr.getChildren().values());
-            boolean shrinkQ = false;
+                return node;
 
-            if (threshold < 0 && tr.getValue() >= 1.0 && arr.get(0).getValue() >= 1.0 ) {
-                shrinkQ = tr.getValue().equals(arr.get(0).getValue());
-            } else if (threshold < 0 ) {
-                shrinkQ = arr.get(0).getValue() == 1.0 ;
-            } else {
-                shrinkQ = arr.get(0).getValue() >= threshold;
-            }
+            } else if (!rootQ && node.getChildren().size() == 1) {
+                Trie ch = node.getChildren().values().iterator().next();
+                Trie chTr = shrunkChildren.values().iterator().next();
+                boolean shrinkQ = false;
 
-            if ( shrinkQ && (!internalOnly || internalOnly && !leafQ( arr.get(0) ) ) )  {
-                // Only one child and the current node does not make a complete match:
-                // proceed with recursion and join with result.
-
-                Trie chTr = shrinkRec(arr.get(0), delimiter, threshold, internalOnly, n + 1);
+                if (threshold < 0 && node.getDoubleValue() >= 1.0 && ch.getDoubleValue() >= 1.0 ) {
+                    shrinkQ = node.getDoubleValue() == ch.getDoubleValue();
+                } else if (threshold < 0 ) {
+                    shrinkQ = ch.getDoubleValue() == 1.0 ;
+                } else {
+                    shrinkQ = ch.getDoubleValue() >= threshold;
+                }
 
-                trRes.setKey(tr.getKey() + delimiter + chTr.getKey());
-                trRes.setValue(tr.getValue());
+                if ( shrinkQ && (!internalOnly || internalOnly && !leafQ( ch ) ) )  {
+                    // Only one child and the current node does not make a complete match:
+                    // join with the shrunk child.
 
-                if (!(chTr.getChildren() == null || chTr.getChildren().isEmpty())) {
-                    trRes.setChildren(chTr.getChildren());
-                }
+                    trRes.setKey(node.getKey() + delimiter + chTr.getKey());
+                    trRes.setValue(node.getValue());
 
-            } else {
-                // Only one child but the current node makes a complete match.
+                    if (!(chTr.getChildren() == null || chTr.getChildren().isEmpty())) {
+                        trRes.setChildren(chTr.getChildren());
+                    }
 
-                Trie chTr = shrinkRec(arr.get(0), delimiter, threshold, internalOnly, n + 1);
+                } else {
+                    // Only one child but the current node makes a complete match.
 
-                trRes.setKey(tr.getKey());
-                trRes.setValue(tr.getValue());
-                trRes.setChildren(new HashMap<String, Trie>());
-                trRes.getChildren().put(chTr.getKey(), chTr);
-            }
+                    trRes.setKey(node.getKey());
+                    trRes.setValue(node.getValue());
+                    trRes.setChildren(new HashMap<String, Trie>());
+                    trRes.getChildren().put(chTr.getKey(), chTr);
+                }
 
-            return trRes;
+                return trRes;
 
-        } else {
-            // No shrinking at this node. Proceed with recursion.
-            Map<String, Trie> recChildren = new HashMap<String, Trie>();
+            } else {
+                // No shrinking at this node.
+                Map<String, Trie> recChildren = new HashMap<String, Trie>();
 
-            for (Trie chTr : tr.getChildren().values()) {
-                Trie nTr = shrinkRec(chTr, delimiter, threshold, internalOnly, n + 1);
-                recChildren.put(nTr.getKey(), nTr);
-            }
+                for (Trie nTr : shrunkChildren.values()) {
+                    recChildren.put(nTr.getKey(), nTr);
+                }
 
-            trRes.setKey(tr.getKey());
-            trRes.setValue(tr.getValue());
-            trRes.setChildren(recChildren);
+                trRes.setKey(node.getKey());
+                trRes.setValue(node.getValue());
+                trRes.setChildren(recChildren);
 
-            return trRes;
-        }
+                return trRes;
+            }
+        });
     }
 
     ///**************************************************************
@@ -867,27 +1523,25 @@ public class TrieFunctions {
         {{ add(res.getKey() + res.getValue()); add(res.getKey()); add(res.getValue()); }};
     }
 
-    //! @description Finding the counts of internal nodes and leaf nodes in a trie.
+    //! @description Finding the counts of internal nodes and leaf nodes in a trie. (Iterative, see TrieTraversal.)
     //! @param tr trie object
     //! @param nInternal number of internal nodes
     //! @param nLeaves number of leaf nodes
     //! @return A pair object with the new values of nInternal and nLeaves.
     protected static Pair<Integer, Integer> nodeCountsRec(Trie tr, int nInternal, int nLeaves) {
 
-        if ( tr.getChildren() == null || tr.getChildren().isEmpty() ) {
-
-            return new Pair<Integer, Integer>( nInternal, nLeaves + 1);
-
-        } else {
-
-            Pair<Integer, Integer> res = new Pair(nInternal,nLeaves);
+        int[] counts = { nInternal, nLeaves };
 
-            for (Trie chTr : tr.getChildren().values()) {
-                res = nodeCountsRec(chTr, res.getKey(), res.getValue() );
+        TrieTraversal.traverse(tr, (Trie node, int depth) -> {
+            if ( node.getChildren() == null || node.getChildren().isEmpty() ) {
+                counts[1]++;
+            } else {
+                counts[0]++;
             }
+            return true;
+        });
 
-            return new Pair<Integer, Integer>( res.getKey()+1, res.getValue() );
-        }
+        return new Pair<Integer, Integer>( counts[0], counts[1] );
     }
 
 
@@ -916,26 +1570,19 @@ public class TrieFunctions {
 
             return tr.clone();
 
-        } else if ( tr.getChildren() == null || tr.getChildren().isEmpty()) {
-
-            Pair<String, Double> pres = func.apply( tr.getKey(), tr.getValue() );
-
-            return new Trie( pres.getKey(), pres.getValue());
-
         } else {
 
-            Map<String, Trie> resChildren = new HashMap<>();
-
-            for (Map.Entry<String, Trie> elem : tr.getChildren().entrySet()) {
+            // Iterative, see TrieTraversal.
+            return TrieTraversal.fold( tr, ( Trie node, int depth, Map<String, Trie> resChildren ) -> {
 
-                Trie chNode = map(elem.getValue(), func);
+                Pair<String, Double> pres = func.apply( node.getKey(), node.getValue() );
 
-                resChildren.put(elem.getKey(), chNode);
-            }
-
-            Pair<String, Double> pres = func.apply(tr.getKey(), tr.getValue());
+                if ( resChildren == null ) {
+                    return new Trie( pres.getKey(), pres.getValue() );
+                }
 
-            return new Trie(pres.getKey(), pres.getValue(), resChildren);
+                return new Trie( pres.getKey(), pres.getValue(), resChildren );
+            } );
         }
     }
 
@@ -961,39 +1608,24 @@ public class TrieFunctions {
 
         } else {
 
-            Trie res;
-            Map<String, Trie> resChildren = null;
-
-            if ( preFunc != null ) {
-                res = preFunc.apply(tr);
-            } else {
-                res = tr;
-            }
-
-            if ( res.getChildren() == null || res.getChildren().isEmpty()) {
-
-                resChildren = null;
-
-            } else {
-
-                resChildren = new HashMap<>();
+            // Iterative, see TrieTraversal.
+            return TrieTraversal.fold( tr, new TrieTraversal.Folder<Trie>() {
 
-                for (Map.Entry<String, Trie> elem : res.getChildren().entrySet()) {
-
-                    Trie chNode = map(elem.getValue(), preFunc, postFunc);
-
-                    resChildren.put(elem.getKey(), chNode);
+                public Trie preVisit( Trie node, int depth ) {
+                    return preFunc != null ? preFunc.apply( node ) : node;
                 }
 
-            }
+                public Trie postVisit( Trie res, int depth, Map<String, Trie> resChildren ) {
 
-            if ( postFunc != null ) {
-                res = postFunc.apply(res);
-            }
+                    if ( postFunc != null ) {
+                        res = postFunc.apply( res );
+                    }
 
-            res.setChildren( resChildren );
+                    res.setChildren( resChildren );
 
-            return res;
+                    return res;
+                }
+            } );
         }
     }
 
@@ -1024,12 +1656,12 @@ public class TrieFunctions {
 
                 for (Map.Entry<String, Trie> elem : tr.getChildren().entrySet()) {
 
-                    if ( belowThresholdQ && elem.getValue().getValue() >= threshold ||
-                            !belowThresholdQ && elem.getValue().getValue() < threshold ) {
+                    if ( belowThresholdQ && elem.getValue().getDoubleValue() >= threshold ||
+                            !belowThresholdQ && elem.getValue().getDoubleValue() < threshold ) {
                         resChildren.put( elem.getKey(), elem.getValue() );
                     } else {
                         if ( postfix != null ) {
-                            removedSum = removedSum + elem.getValue().getValue();
+                            removedSum = removedSum + elem.getValue().getDoubleValue();
                         }
                     }
                 }
@@ -1069,11 +1701,11 @@ public class TrieFunctions {
         return map( tr, thRemovalObj, null );
     }
 
-    private static class ByKeyRegexRemoval implements TrieNodeFunction {
-        ByKeyRegexRemoval(String kp ) { keyPattern = kp; postfix = null; }
-        ByKeyRegexRemoval(String kp, String rt ) { keyPattern = kp; postfix = rt; }
+    private static class ByKeyPredicateRemoval implements TrieNodeFunction {
+        ByKeyPredicateRemoval( Predicate<String> kp ) { keyPredicate = kp; postfix = null; }
+        ByKeyPredicateRemoval( Predicate<String> kp, String rt ) { keyPredicate = kp; postfix = rt; }
 
-        public String keyPattern;
+        public Predicate<String> keyPredicate;
         public String postfix;
 
         public Trie apply( Trie tr ) {
@@ -1085,11 +1717,11 @@ public class TrieFunctions {
 
                 for (Map.Entry<String, Trie> elem : tr.getChildren().entrySet()) {
 
-                    if ( !elem.getKey().matches( keyPattern )) {
+                    if ( !keyPredicate.test( elem.getKey() ) ) {
                         resChildren.put( elem.getKey(), elem.getValue() );
                     } else {
                         if ( postfix != null ) {
-                            removedSum = removedSum + elem.getValue().getValue();
+                            removedSum = removedSum + elem.getValue().getDoubleValue();
                         }
                     }
                 }
@@ -1106,22 +1738,104 @@ public class TrieFunctions {
         }
     }
 
+    //! @description Makes a predicate that tests do keys match a regexp.
+    //! @param keyRegex a regexp
+    //! @details The regexp is compiled once and the result for each distinct key is memoized,
+    //! so the regexp is evaluated once per distinct key. (The predicate is thread-safe; null keys do not match.)
+    public static Predicate<String> keyRegexPredicate( String keyRegex ) {
+        Pattern pattern = Pattern.compile( keyRegex );
+        Map<String, Boolean> memo = new ConcurrentHashMap<>();
+        return key -> key != null && memo.computeIfAbsent( key, k -> pattern.matcher( k ).matches() );
+    }
+
     //! @description Remove nodes with keys satisfying a regexp.
     public static Trie removeByKeyRegex( Trie tr, String keyRegex ) {
-
-        ByKeyRegexRemoval kpRemovalObj = new ByKeyRegexRemoval( keyRegex );
-
-        return map( tr, kpRemovalObj, null );
+        return removeByKeyPredicate( tr, keyRegexPredicate( keyRegex ), null );
     }
 
     //! @description Remove nodes with keys satisfying a regexp and replace them laterally with postfix.
     public static Trie removeByKeyRegex( Trie tr, String keyRegex, String postfix ) {
+        return removeByKeyPredicate( tr, keyRegexPredicate( keyRegex ), postfix );
+    }
+
+    //! @description Remove nodes with keys satisfying a regexp and replace them laterally with postfix (if not null).
+    //! @param pool a fork-join pool to process the sub-tries in
+    public static Trie removeByKeyRegex( Trie tr, String keyRegex, String postfix, ForkJoinPool pool ) {
+        return removeByKeyPredicate( tr, keyRegexPredicate( keyRegex ), postfix, pool );
+    }
 
-        ByKeyRegexRemoval kpRemovalObj = new ByKeyRegexRemoval( keyRegex, postfix);
+    //! @description Remove nodes with keys satisfying a predicate and replace them laterally with postfix (if not null).
+    //! @param tr a trie object
+    //! @param keyPredicate a predicate over the keys; expensive predicates should be memoized, see keyRegexPredicate
+    //! @param postfix key for the node of the removed values sum
+    public static Trie removeByKeyPredicate( Trie tr, Predicate<String> keyPredicate, String postfix ) {
+
+        ByKeyPredicateRemoval kpRemovalObj = new ByKeyPredicateRemoval( keyPredicate, postfix );
 
         return map( tr, kpRemovalObj, null );
     }
 
+    //! @description Remove nodes with keys satisfying a predicate and replace them laterally with postfix (if not null).
+    //! @param tr a trie object
+    //! @param keyPredicate a thread-safe predicate over the keys
+    //! @param postfix key for the node of the removed values sum
+    //! @param pool a fork-join pool to process the sub-tries in
+    //! @details Gives the same result as the sequential version.
+    public static Trie removeByKeyPredicate( Trie tr, Predicate<String> keyPredicate, String postfix, ForkJoinPool pool ) {
+        if ( tr == null ) {
+            return null;
+        }
+        return pool.invoke( new NodeFunctionMapTask( tr, new ByKeyPredicateRemoval( keyPredicate, postfix ) ) );
+    }
+
+    //! @description Parallel version of map with a pre-function.
+    //! @details The sub-tries are forked while the pool has few queued tasks, otherwise they are mapped sequentially.
+    @SuppressWarnings("serial")
+    private static class NodeFunctionMapTask extends RecursiveTask<Trie> {
+        NodeFunctionMapTask( Trie tr, TrieNodeFunction f ) { node = tr; preFunc = f; }
+
+        public Trie node;
+        public TrieNodeFunction preFunc;
+
+        protected Trie compute() {
+            Trie res = preFunc.apply( node );
+
+            if ( res.getChildren() == null || res.getChildren().isEmpty() ) {
+                res.setChildren( null );
+                return res;
+            }
+
+            Map<String, Trie> resChildren = new HashMap<>();
+            List<NodeFunctionMapTask> tasks = new ArrayList<>();
+            List<String> taskKeys = new ArrayList<>();
+
+            for ( Map.Entry<String, Trie> elem : res.getChildren().entrySet() ) {
+                if ( getSurplusQueuedTaskCount() < 3 && !leafQ( elem.getValue() ) ) {
+                    NodeFunctionMapTask task = new NodeFunctionMapTask( elem.getValue(), preFunc );
+                    task.fork();
+                    tasks.add( task );
+                    taskKeys.add( elem.getKey() );
+                } else {
+                    resChildren.put( elem.getKey(), map( elem.getValue(), preFunc, null ) );
+                }
+            }
+
+            for ( int i = tasks.size() - 1; i >= 0; i-- ) {
+                resChildren.put( taskKeys.get(i), tasks.get(i).join() );
+            }
+
+            res.setChildren( resChildren );
+            return res;
+        }
+    }
+
+    //! @description Orders nodes by descending values; nodes with equal values are ordered by key.
+    //! @details The Pareto removal functions use this order, so their results do not depend on the children map order.
+    protected static int compareByValueDescending(Trie a, Trie b) {
+        int c = Double.compare(b.getDoubleValue(), a.getDoubleValue());
+        return c != 0 ? c : FrozenTrie.compareKeys(a.getKey(), b.getKey());
+    }
+
     private static class ByParetoFractionRemoval implements TrieNodeFunction {
         ByParetoFractionRemoval( ) {
             this.paretoFraction = 0.8;
@@ -1161,10 +1875,10 @@ public class TrieFunctions {
 
                 // Calculate the cumulative sum
                 for ( Trie elem : childrenList ) {
-                    cumSum += elem.getValue();
+                    cumSum += elem.getDoubleValue();
                 }
 
-                Collections.sort(childrenList, (Trie a1, Trie a2) -> a2.getValue().compareTo( a1.getValue() ) );
+                Collections.sort(childrenList, TrieFunctions::compareByValueDescending);
 
                 threshold = paretoFraction * cumSum;
 
@@ -1177,10 +1891,10 @@ public class TrieFunctions {
                         resChildren.put( elem.getKey(), elem );
                     } else {
                         if ( postfix != null ) {
-                            removedSum = removedSum + elem.getValue();
+                            removedSum = removedSum + elem.getDoubleValue();
                         }
                     }
-                    cumSum += elem.getValue();
+                    cumSum += elem.getDoubleValue();
                 }
 
                 if ( postfix != null && removedSum > 0 ) {
@@ -1238,27 +1952,24 @@ public class TrieFunctions {
 
     protected static Trie pruneRec( Trie tr, int maxLevel, int n ) {
 
-        if ( tr.getChildren() != null && !tr.getChildren().isEmpty() && ( maxLevel < 0 || n < maxLevel ) ) {
-            Map<String, Trie> resChildren = new HashMap<>();
-
-            for (Trie elem : tr.getChildren().values()) {
+        // Iterative, see TrieTraversal.
+        return TrieTraversal.fold( tr, new TrieTraversal.Folder<Trie>() {
 
-                Trie rElem = pruneRec(elem, maxLevel, n + 1);
-
-                resChildren.put(elem.getKey(), rElem);
+            public Trie preVisit( Trie node, int depth ) {
+                return maxLevel < 0 || n + depth < maxLevel ? node : null;
             }
 
-            if (resChildren.isEmpty()) {
-                return tr.clone();
-            }
+            public Trie postVisit( Trie node, int depth, Map<String, Trie> resChildren ) {
 
-            Trie res = new Trie(tr.getKey(), tr.getValue());
-            res.setChildren(resChildren);
+                Trie res = new Trie(node.getKey(), node.getValue());
 
-            return res;
-        } else {
-            return new Trie(tr.getKey(), tr.getValue());
-        }
+                if ( resChildren != null ) {
+                    res.setChildren(resChildren);
+                }
+
+                return res;
+            }
+        } );
     }
 
     //! @description Prunes the trie to a specified maximum level.
@@ -1286,7 +1997,7 @@ public class TrieFunctions {
             double totalWeight = 0.0d;
             if ( weightedQ ) {
                 for (Trie elem : children) {
-                    totalWeight += elem.getValue();
+                    totalWeight += elem.getDoubleValue();
                 }
             } else {
                 for (Trie elem : children) {
@@ -1299,7 +2010,7 @@ public class TrieFunctions {
             int i = 0;
             for ( Trie elem : children ) {
                 if ( weightedQ ) {
-                    random -= elem.getValue();
+                    random -= elem.getDoubleValue();
                 } else {
                     random -= 1.0;
                 }
@@ -0,0 +1,245 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.regex.Pattern;
+
+//! @description Functions for creating tries from large files and streams.
+//! @details The input is read in line aligned chunks. Each chunk is split into words
+//! and made into a trie by a separate task; the chunk tries are merged into the result as they are finished.
+//! At most a few chunks per worker thread are held in memory at the same time, regardless of the input size.
+//! Each line of the input is a word; empty lines are skipped. The character set has to be
+//! ASCII compatible (e.g. UTF-8), since the chunk boundaries are found by looking for the byte '\n'.
+public class TrieIngestion {
+
+    //! @description The default chunk size in bytes.
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 23;
+
+    ///**************************************************************
+    /// Chunk parsing
+    ///**************************************************************
+
+    //! @description Makes a trie from the lines of a chunk of text.
+    //! @param text the chunk text
+    //! @param pattern a splitting pattern
+    protected static Trie createFromChunk( String text, Pattern pattern ) {
+        Trie res = null;
+        int start = 0;
+        int n = text.length();
+
+        while (start < n) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = n;
+            }
+
+            int lineEnd = end;
+            if (lineEnd > start && text.charAt(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+
+            if (lineEnd > start) {
+                String[] tokens = pattern.split(text.substring(start, lineEnd));
+                res = TrieFunctions.insertInPlace(res, Arrays.asList(tokens));
+            }
+
+            start = end + 1;
+        }
+
+        return res;
+    }
+
+    //! @description Submits the parsing of a chunk and merges finished chunk tries into the result.
+    //! @details Waits for the oldest chunk task if there are too many tasks in flight.
+    protected static Trie submitChunk( Deque<ForkJoinTask<Trie>> inFlight, Trie res, ForkJoinPool pool,
+                                       String text, Pattern pattern ) {
+
+        while (inFlight.size() >= 2 * pool.getParallelism()) {
+            res = TrieFunctions.merge(res, inFlight.removeFirst().join());
+        }
+
+        inFlight.addLast(pool.submit(() -> createFromChunk(text, pattern)));
+
+        return res;
+    }
+
+    protected static Trie mergeAll( Deque<ForkJoinTask<Trie>> inFlight, Trie res ) {
+        while (!inFlight.isEmpty()) {
+            res = TrieFunctions.merge(res, inFlight.removeFirst().join());
+        }
+        return res;
+    }
+
+
+    ///**************************************************************
+    /// Creation from files
+    ///**************************************************************
+
+    //! @description Creates a trie from the lines of a file.
+    //! @param path file path
+    //! @param regex a splitting pattern for the lines
+    public static Trie createFromFile( Path path, String regex ) throws IOException {
+        return createFromFile(path, regex, StandardCharsets.UTF_8, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    //! @description Creates a trie from the lines of a file.
+    //! @param path file path
+    //! @param regex a splitting pattern for the lines
+    //! @param charset the character set of the file
+    //! @param chunkSize the size of the chunks in bytes
+    //! @param pool a fork/join pool to parse the chunks in
+    //! @details The file is memory-mapped chunk by chunk.
+    public static Trie createFromFile( Path path, String regex, Charset charset, int chunkSize, ForkJoinPool pool )
+            throws IOException {
+
+        Pattern pattern = Pattern.compile(regex);
+        Deque<ForkJoinTask<Trie>> inFlight = new ArrayDeque<>();
+        Trie res = null;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+            long len = chunkSize;
+
+            while (start < size) {
+                long end = Math.min(size, start + len);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+
+                int chunkLen = (int) (end - start);
+                if (end < size) {
+                    chunkLen = lastLineEnd(buffer, chunkLen);
+                    if (chunkLen == 0) {
+                        // A line longer than the chunk -- try again with a larger chunk.
+                        len = 2 * len;
+                        continue;
+                    }
+                }
+
+                buffer.limit(chunkLen);
+                String text = charset.decode(buffer).toString();
+                res = submitChunk(inFlight, res, pool, text, pattern);
+
+                start += chunkLen;
+                len = chunkSize;
+            }
+        }
+
+        return mergeAll(inFlight, res);
+    }
+
+    //! @description The length of the prefix of a buffer that ends with the last '\n'; 0 if there is no '\n'.
+    protected static int lastLineEnd( ByteBuffer buffer, int length ) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+
+    ///**************************************************************
+    /// Creation from streams
+    ///**************************************************************
+
+    //! @description Creates a trie from the lines of an input stream.
+    //! @param in an input stream
+    //! @param regex a splitting pattern for the lines
+    public static Trie createFromStream( InputStream in, String regex ) throws IOException {
+        return createFromStream(in, regex, StandardCharsets.UTF_8, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    //! @description Creates a trie from the lines of an input stream.
+    //! @param in an input stream
+    //! @param regex a splitting pattern for the lines
+    //! @param charset the character set of the stream
+    //! @param chunkSize the size of the chunks in bytes
+    //! @param pool a fork/join pool to parse the chunks in
+    //! @details The stream is not closed.
+    public static Trie createFromStream( InputStream in, String regex, Charset charset, int chunkSize, ForkJoinPool pool )
+            throws IOException {
+
+        Pattern pattern = Pattern.compile(regex);
+        Deque<ForkJoinTask<Trie>> inFlight = new ArrayDeque<>();
+        Trie res = null;
+
+        byte[] buffer = new byte[chunkSize];
+        int filled = 0;
+        boolean eof = false;
+
+        while (!eof) {
+            int n = in.read(buffer, filled, buffer.length - filled);
+            if (n < 0) {
+                eof = true;
+            } else {
+                filled += n;
+                if (filled < buffer.length) {
+                    continue;
+                }
+            }
+
+            int chunkLen = eof ? filled : lastLineEnd(ByteBuffer.wrap(buffer), filled);
+
+            if (chunkLen == 0 && !eof) {
+                // A line longer than the buffer.
+                buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+                continue;
+            }
+
+            if (chunkLen > 0) {
+                String text = new String(buffer, 0, chunkLen, charset);
+                res = submitChunk(inFlight, res, pool, text, pattern);
+            }
+
+            // Move the incomplete last line to the beginning of the buffer.
+            System.arraycopy(buffer, chunkLen, buffer, 0, filled - chunkLen);
+            filled -= chunkLen;
+        }
+
+        return mergeAll(inFlight, res);
+    }
+}
@@ -0,0 +1,315 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+//! @description A pipeline of node removal rules that is applied to a trie in one traversal.
+//! @details The rules correspond to TrieFunctions.removeByThreshold, removeByKeyRegex, removeByParetoFraction
+//! and prune. Applying a pipeline gives the same trie as applying the corresponding functions one after another
+//! (children with equal values are ordered by key in both; the values of the postfix nodes are sums that may
+//! differ in the last bits for non-integer values, since they are added in a different order),
+//! but each node is visited once: at each node the rules are applied in sequence to the children of the node,
+//! then the remaining children are processed.
+//! The sub-tries that are not changed are taken by reference from the original trie, i.e. the result shares
+//! nodes with the original trie.
+//! Here is way to use:
+//! TrieReduction.Result res = new TrieReduction().removeByThreshold(2).removeByKeyRegex("\\d+", "NUM").prune(4).apply(myTrie);
+public class TrieReduction {
+
+    //! @description Interface for the removal rules.
+    public interface Rule {
+        //! @description Selects the children of a node.
+        //! @param node the node
+        //! @param level the level of the node (the root is at level 0)
+        //! @param children the current children of the node (after the application of the preceding rules)
+        //! @return The same list object if no child is removed or added, otherwise a new list.
+        List<Trie> apply( Trie node, int level, List<Trie> children );
+    }
+
+    //! @description The result of the application of a pipeline.
+    public static class Result {
+        Result( Trie tr, List<String> rn, long[] rc ) { trie = tr; ruleNames = rn; removedCounts = rc; }
+
+        protected final Trie trie;
+        protected final List<String> ruleNames;
+        protected final long[] removedCounts;
+
+        public Trie getTrie() {
+            return trie;
+        }
+
+        public List<String> getRuleNames() {
+            return ruleNames;
+        }
+
+        //! @description The numbers of nodes removed by each of the rules.
+        //! @details A removed node is counted once, i.e. without the nodes of its sub-trie.
+        public long[] getRemovedCounts() {
+            return removedCounts;
+        }
+
+        public String toString() {
+            StringBuilder sb = new StringBuilder("{");
+            for (int i = 0; i < ruleNames.size(); i++) {
+                sb.append(i > 0 ? ", " : "").append(ruleNames.get(i)).append("=").append(removedCounts[i]);
+            }
+            return sb.append("}").toString();
+        }
+    }
+
+    protected final List<Rule> rules = new ArrayList<>();
+    protected final List<String> ruleNames = new ArrayList<>();
+
+    //! @description Adds a rule to the pipeline.
+    //! @param name the name of the rule in the removal report
+    //! @param rule a rule object
+    public TrieReduction addRule( String name, Rule rule ) {
+        rules.add(rule);
+        ruleNames.add(name);
+        return this;
+    }
+
+    //! @description Removes the children that are not in the selected ones and adds the postfix node.
+    protected static List<Trie> selectChildren( List<Trie> children, boolean[] keepQ, String postfix ) {
+        int nKept = 0;
+        double removedSum = 0;
+        for (int i = 0; i < keepQ.length; i++) {
+            if (keepQ[i]) {
+                nKept++;
+            } else {
+                removedSum += children.get(i).getDoubleValue();
+            }
+        }
+
+        if (nKept == children.size()) {
+            return children;
+        }
+
+        List<Trie> res = new ArrayList<>(nKept + 1);
+        for (int i = 0; i < keepQ.length; i++) {
+            if (keepQ[i]) {
+                res.add(children.get(i));
+            }
+        }
+        if (postfix != null && removedSum > 0) {
+            res.add(new Trie(postfix, removedSum));
+        }
+        return res;
+    }
+
+    //! @description Remove nodes with values below or above a specified threshold.
+    //! @details See TrieFunctions.removeByThreshold .
+    public TrieReduction removeByThreshold( double threshold, boolean belowThresholdQ, String postfix ) {
+        return addRule("removeByThreshold[" + threshold + "]", ( node, level, children ) -> {
+            boolean[] keepQ = new boolean[children.size()];
+            for (int i = 0; i < keepQ.length; i++) {
+                double v = children.get(i).getDoubleValue();
+                keepQ[i] = belowThresholdQ && v >= threshold || !belowThresholdQ && v < threshold;
+            }
+            return selectChildren(children, keepQ, postfix);
+        });
+    }
+
+    //! @description Remove nodes with values below a specified threshold.
+    public TrieReduction removeByThreshold( double threshold ) {
+        return removeByThreshold(threshold, true, null);
+    }
+
+    //! @description Remove nodes with keys satisfying a regexp and replace them laterally with postfix (if not null).
+    //! @details See TrieFunctions.removeByKeyRegex; the regexp is evaluated once per distinct key.
+    public TrieReduction removeByKeyRegex( String keyRegex, String postfix ) {
+        return addRule("removeByKeyRegex[" + keyRegex + "]", keyPredicateRule(TrieFunctions.keyRegexPredicate(keyRegex), postfix));
+    }
+
+    //! @description Remove nodes with keys satisfying a predicate and replace them laterally with postfix (if not null).
+    //! @details See TrieFunctions.removeByKeyPredicate .
+    public TrieReduction removeByKeyPredicate( Predicate<String> keyPredicate, String postfix ) {
+        return addRule("removeByKeyPredicate", keyPredicateRule(keyPredicate, postfix));
+    }
+
+    protected static Rule keyPredicateRule( Predicate<String> keyPredicate, String postfix ) {
+        return ( node, level, children ) -> {
+            boolean[] keepQ = new boolean[children.size()];
+            for (int i = 0; i < keepQ.length; i++) {
+                keepQ[i] = !keyPredicate.test(children.get(i).getKey());
+            }
+            return selectChildren(children, keepQ, postfix);
+        };
+    }
+
+    //! @description Remove nodes with keys satisfying a regexp.
+    public TrieReduction removeByKeyRegex( String keyRegex ) {
+        return removeByKeyRegex(keyRegex, null);
+    }
+
+    //! @description Remove nodes with values below/above a Pareto threshold and replace them laterally with postfix (if not null).
+    //! @details See TrieFunctions.removeByParetoFraction .
+    public TrieReduction removeByParetoFraction( double paretoFraction, boolean removeBottomElementsQ, String postfix ) {
+        return addRule("removeByParetoFraction[" + paretoFraction + "]", ( node, level, children ) -> {
+            double cumSum = 0;
+            for (Trie elem : children) {
+                cumSum += elem.getDoubleValue();
+            }
+            double threshold = paretoFraction * cumSum;
+
+            Integer[] order = new Integer[children.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, ( a, b ) -> TrieFunctions.compareByValueDescending(children.get(a), children.get(b)));
+
+            boolean[] keepQ = new boolean[children.size()];
+            boolean anyQ = false;
+            cumSum = 0;
+            for (int i : order) {
+                keepQ[i] = removeBottomElementsQ && cumSum <= threshold || !removeBottomElementsQ && cumSum > threshold;
+                anyQ = anyQ || keepQ[i];
+                cumSum += children.get(i).getDoubleValue();
+            }
+
+            if (!anyQ && (postfix == null || cumSum <= 0)) {
+                // Same as in TrieFunctions.removeByParetoFraction: nothing is removed if nothing would remain.
+                return children;
+            }
+            return selectChildren(children, keepQ, postfix);
+        });
+    }
+
+    //! @description Remove nodes with values below a Pareto threshold.
+    public TrieReduction removeByParetoFraction( double paretoFraction ) {
+        return removeByParetoFraction(paretoFraction, true, null);
+    }
+
+    //! @description Prunes the trie to a specified maximum level.
+    //! @details See TrieFunctions.prune .
+    public TrieReduction prune( int maxLevel ) {
+        return addRule("prune[" + maxLevel + "]", ( node, level, children ) ->
+                maxLevel < 0 || level < maxLevel || children.isEmpty() ? children : Collections.emptyList());
+    }
+
+    //! @description Applies the pipeline to a trie.
+    //! @param tr a trie object
+    //! @details The trie is traversed with TrieTraversal.fold, so deep tries do not overflow the stack.
+    public Result apply( Trie tr ) {
+        long[] removedCounts = new long[rules.size()];
+
+        // The nodes made by preVisit for the nodes with changed children.
+        Set<Trie> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        Trie res = TrieTraversal.fold(tr, new TrieTraversal.Folder<Trie>() {
+            @Override
+            public Trie preVisit( Trie node, int level ) {
+                return applyRules(node, level, removedCounts, changed);
+            }
+
+            @Override
+            public Trie postVisit( Trie node, int level, Map<String, Trie> childResults ) {
+                boolean changedQ = changed.remove(node);
+
+                if (childResults == null) {
+                    return node;
+                }
+
+                for (Map.Entry<String, Trie> e : childResults.entrySet()) {
+                    changedQ = changedQ || e.getValue() != node.getChildren().get(e.getKey());
+                }
+
+                if (!changedQ) {
+                    return node;
+                }
+
+                Trie r = new Trie(node.getKey(), node.getValue());
+                r.setChildren(childResults);
+                return r;
+            }
+        });
+
+        return new Result(res, Collections.unmodifiableList(new ArrayList<>(ruleNames)), removedCounts);
+    }
+
+    //! @description Applies the rules to the children of a node.
+    //! @return The original node if the rules do not change its children; otherwise a new node with the selected children.
+    protected Trie applyRules( Trie tr, int level, long[] removedCounts, Set<Trie> changed ) {
+
+        if (tr.getChildren() == null || tr.getChildren().isEmpty()) {
+            return tr;
+        }
+
+        List<Trie> original = new ArrayList<>(tr.getChildren().values());
+        List<Trie> children = original;
+
+        for (int i = 0; i < rules.size(); i++) {
+            List<Trie> selected = rules.get(i).apply(tr, level, children);
+            if (selected != children) {
+                removedCounts[i] += countRemoved(children, selected);
+                children = selected;
+            }
+        }
+
+        if (children == original) {
+            return tr;
+        }
+
+        Map<String, Trie> resChildren = new HashMap<>();
+        for (Trie ch : children) {
+            resChildren.put(ch.getKey(), ch);
+        }
+
+        Trie res = new Trie(tr.getKey(), tr.getValue());
+        res.setChildren(resChildren);
+        changed.add(res);
+        return res;
+    }
+
+    //! @description The number of nodes in a list of children that are not in another list.
+    protected static long countRemoved( List<Trie> before, List<Trie> after ) {
+        Set<Trie> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        kept.addAll(after);
+        long n = 0;
+        for (Trie ch : before) {
+            if (!kept.contains(ch)) {
+                n++;
+            }
+        }
+        return n;
+    }
+}
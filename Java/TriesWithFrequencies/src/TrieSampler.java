@@ -0,0 +1,153 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+//! @description Random choice of root-to-leaf paths with tables precomputed once per trie.
+//! @details The trie is frozen and for each node the cumulative sums of the children values are computed.
+//! A draw goes from the root to a leaf selecting each child with a binary search over the cumulative sums,
+//! i.e. in O(depth * log(fanout)) time. The paths are the same as the ones of TrieFunctions.randomChoice.
+//! The sampler is read-only after it is made, hence it can be used from many threads,
+//! each with its own random number generator.
+public class TrieSampler {
+
+    //! @description The number of draws per parallel task in bulk sampling.
+    public static final int CHUNK_SIZE = 1024;
+
+    protected FrozenTrie trie;
+    protected boolean weightedQ;
+
+    //! The cumulative sums of the values of the preceding siblings and the node itself.
+    protected double[] cumulativeWeights;
+
+    //! @description Makes a sampler for a trie.
+    //! @param tr a trie object
+    //! @param weightedQ should the children be selected with probabilities proportional to their values
+    public TrieSampler( Trie tr, boolean weightedQ ) {
+        this(new FrozenTrie(tr), weightedQ);
+    }
+
+    //! @description Makes a sampler for a frozen trie.
+    //! @param tr a frozen trie object
+    //! @param weightedQ should the children be selected with probabilities proportional to their values
+    public TrieSampler( FrozenTrie tr, boolean weightedQ ) {
+        this.trie = tr;
+        this.weightedQ = weightedQ;
+
+        if (weightedQ) {
+            cumulativeWeights = new double[tr.size()];
+            for (int node = 0; node < tr.size(); node++) {
+                double sum = 0;
+                int first = tr.firstChild(node);
+                for (int i = first; i < first + tr.childCount(node); i++) {
+                    sum += tr.getValue(i);
+                    cumulativeWeights[i] = sum;
+                }
+            }
+        }
+    }
+
+    //! @description Selects a child of a node.
+    protected int selectChild( int node, SplittableRandom rnd ) {
+        int first = trie.firstChild(node);
+        int n = trie.childCount(node);
+
+        if (!weightedQ) {
+            return first + rnd.nextInt(n);
+        }
+
+        double r = rnd.nextDouble() * cumulativeWeights[first + n - 1];
+
+        // The first child with a cumulative weight not smaller than r.
+        int lo = first;
+        int hi = first + n - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulativeWeights[mid] < r) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    //! @description Random choice of a root-to-leaf path.
+    //! @param rnd random number generator
+    public List<String> sample( SplittableRandom rnd ) {
+        List<String> res = new ArrayList<>();
+        int node = FrozenTrie.ROOT;
+        res.add(trie.getKey(node));
+
+        while (!trie.leafQ(node)) {
+            node = selectChild(node, rnd);
+            res.add(trie.getKey(node));
+        }
+
+        return res;
+    }
+
+    //! @description Random choice of n root-to-leaf paths.
+    //! @param n number of paths
+    //! @param seed random seed
+    public List<List<String>> sample( int n, long seed ) {
+        return sample(n, new SplittableRandom(seed));
+    }
+
+    //! @description Random choice of n root-to-leaf paths. (In parallel.)
+    //! @param n number of paths
+    //! @param rnd random number generator
+    //! @details The draws are made in chunks, each with its own generator split from rnd,
+    //! so for a given seed the result does not depend on the number of threads.
+    public List<List<String>> sample( int n, SplittableRandom rnd ) {
+        int nChunks = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        SplittableRandom[] rnds = new SplittableRandom[nChunks];
+        for (int c = 0; c < nChunks; c++) {
+            rnds[c] = rnd.split();
+        }
+
+        // Setting distinct elements does not change the list structure, so the chunks can be filled concurrently.
+        List<List<String>> res = new ArrayList<>(Collections.nCopies(n, null));
+
+        IntStream.range(0, nChunks).parallel().forEach(c -> {
+            for (int i = c * CHUNK_SIZE; i < Math.min(n, (c + 1) * CHUNK_SIZE); i++) {
+                res.set(i, sample(rnds[c]));
+            }
+        });
+
+        return res;
+    }
+}
@@ -0,0 +1,544 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+//! @description Saving and loading of tries in a compact binary format.
+//! @details The format (version 1) is:
+//! the magic bytes "TWFT", the version as a 4 byte integer,
+//! the number of distinct keys followed by the keys (length and UTF-8 bytes of each key),
+//! the number of nodes, and the nodes in pre-order.
+//! Each node is written as: varint(2 * (key index + 1) + hasValue), the raw 8 byte value if hasValue is 1,
+//! and varint(number of children). The key index 0 stands for a null key.
+//! The children of each node are written in key order, hence snapshots can be loaded
+//! directly into a FrozenTrie object.
+//! Snapshots that do not follow the format (bad key indexes, children out of key order,
+//! missing or extra nodes) are rejected with an IOException.
+//! The traversals use explicit stacks, hence the depth of the tries is not limited by the call stack.
+public class TrieSnapshot {
+
+    public static final int VERSION = 1;
+
+    protected static final byte[] MAGIC = {'T', 'W', 'F', 'T'};
+
+    protected static final int BUFFER_SIZE = 1 << 16;
+
+    ///**************************************************************
+    /// Buffered channel output and input
+    ///**************************************************************
+
+    protected static class Output {
+        Output(WritableByteChannel channel) { this.channel = channel; buffer = ByteBuffer.allocateDirect(BUFFER_SIZE); }
+
+        WritableByteChannel channel;
+        ByteBuffer buffer;
+
+        void ensure(int n) throws IOException {
+            if (buffer.remaining() < n) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void writeVarInt(long v) throws IOException {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buffer.put((byte) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            buffer.put((byte) v);
+        }
+
+        void writeInt(int v) throws IOException {
+            ensure(4);
+            buffer.putInt(v);
+        }
+
+        void writeDouble(double v) throws IOException {
+            ensure(8);
+            buffer.putDouble(v);
+        }
+
+        void writeBytes(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int n = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, n);
+                offset += n;
+            }
+        }
+    }
+
+    protected static class Input {
+        Input(ReadableByteChannel channel) {
+            this.channel = channel;
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.flip();
+        }
+
+        ReadableByteChannel channel;
+        ByteBuffer buffer;
+
+        void require(int n) throws IOException {
+            if (buffer.remaining() >= n) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < n) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Unexpected end of trie snapshot.");
+                }
+            }
+            buffer.flip();
+        }
+
+        long readVarInt() throws IOException {
+            long res = 0;
+            int shift = 0;
+            while (true) {
+                require(1);
+                byte b = buffer.get();
+                res |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return res;
+                }
+                shift += 7;
+                if (shift > 63) {
+                    throw new IOException("Malformed varint in trie snapshot.");
+                }
+            }
+        }
+
+        int readInt() throws IOException {
+            require(4);
+            return buffer.getInt();
+        }
+
+        double readDouble() throws IOException {
+            require(8);
+            return buffer.getDouble();
+        }
+
+        byte[] readBytes(int n) throws IOException {
+            byte[] res = new byte[n];
+            int offset = 0;
+            while (offset < n) {
+                require(1);
+                int k = Math.min(buffer.remaining(), n - offset);
+                buffer.get(res, offset, k);
+                offset += k;
+            }
+            return res;
+        }
+    }
+
+
+    ///**************************************************************
+    /// Writing
+    ///**************************************************************
+
+    //! @description The children of a node in key order.
+    protected static List<Trie> sortedChildren( Trie tr ) {
+        if (TrieFunctions.leafQ(tr)) {
+            return Collections.emptyList();
+        }
+        List<Trie> chs = new ArrayList<>(tr.getChildren().values());
+        chs.sort((a, b) -> FrozenTrie.compareKeys(a.getKey(), b.getKey()));
+        return chs;
+    }
+
+    protected static void writeHeader( Output out, List<String> symbols, long nodeCount ) throws IOException {
+        out.writeBytes(MAGIC);
+        out.writeInt(VERSION);
+
+        out.writeVarInt(symbols.size());
+        for (String s : symbols) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeVarInt(bytes.length);
+            out.writeBytes(bytes);
+        }
+
+        out.writeVarInt(nodeCount);
+    }
+
+    protected static void writeNode( Output out, int keyIndex, boolean hasValue, double value, int childCount )
+            throws IOException {
+        out.writeVarInt(2L * (keyIndex + 1) + (hasValue ? 1 : 0));
+        if (hasValue) {
+            out.writeDouble(value);
+        }
+        out.writeVarInt(childCount);
+    }
+
+    //! @description Writes a snapshot of a trie into a channel.
+    //! @param tr a trie object
+    //! @param channel a writable channel; it is not closed
+    public static void write( Trie tr, WritableByteChannel channel ) throws IOException {
+
+        // First pass -- key table and node count.
+        Map<String, Integer> symbolIds = new HashMap<>();
+        List<String> symbols = new ArrayList<>();
+        long nodeCount = 0;
+
+        Deque<Trie> stack = new ArrayDeque<>();
+        stack.push(tr);
+        while (!stack.isEmpty()) {
+            Trie node = stack.pop();
+            nodeCount++;
+            if (node.getKey() != null && !symbolIds.containsKey(node.getKey())) {
+                symbolIds.put(node.getKey(), symbols.size());
+                symbols.add(node.getKey());
+            }
+            if (!TrieFunctions.leafQ(node)) {
+                for (Trie ch : node.getChildren().values()) {
+                    stack.push(ch);
+                }
+            }
+        }
+
+        Output out = new Output(channel);
+        writeHeader(out, symbols, nodeCount);
+
+        // Second pass -- the nodes in pre-order.
+        stack.push(tr);
+        while (!stack.isEmpty()) {
+            Trie node = stack.pop();
+            List<Trie> chs = sortedChildren(node);
+
+            writeNode(out, node.getKey() == null ? -1 : symbolIds.get(node.getKey()),
+                    node.hasValue(), node.getDoubleValue(), chs.size());
+
+            for (int i = chs.size() - 1; i >= 0; i--) {
+                stack.push(chs.get(i));
+            }
+        }
+
+        out.flush();
+    }
+
+    //! @description Writes a snapshot of a frozen trie into a channel.
+    //! @param tr a frozen trie object
+    //! @param channel a writable channel; it is not closed
+    public static void write( FrozenTrie tr, WritableByteChannel channel ) throws IOException {
+
+        Output out = new Output(channel);
+        writeHeader(out, Arrays.asList(tr.symbols), tr.size());
+
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = FrozenTrie.ROOT;
+
+        while (top > 0) {
+            int node = stack[--top];
+            double value = tr.getValue(node);
+
+            writeNode(out, tr.keyIds[node], !Double.isNaN(value), value, tr.childCount(node));
+
+            int first = tr.firstChild(node);
+            for (int i = first + tr.childCount(node) - 1; i >= first; i--) {
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * stack.length);
+                }
+                stack[top++] = i;
+            }
+        }
+
+        out.flush();
+    }
+
+    //! @description Writes a snapshot of a trie into a file.
+    //! @param tr a trie object
+    //! @param path file path
+    public static void write( Trie tr, Path path ) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(tr, channel);
+        }
+    }
+
+    //! @description Writes a snapshot of a frozen trie into a file.
+    //! @param tr a frozen trie object
+    //! @param path file path
+    public static void write( FrozenTrie tr, Path path ) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(tr, channel);
+        }
+    }
+
+
+    ///**************************************************************
+    /// Reading
+    ///**************************************************************
+
+    protected static String[] readHeader( Input in ) throws IOException {
+        byte[] magic = in.readBytes(MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a trie snapshot.");
+        }
+
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported trie snapshot version: " + version + ".");
+        }
+
+        String[] symbols = new String[readCount(in, "symbol count")];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = new String(in.readBytes(readCount(in, "symbol length")), StandardCharsets.UTF_8);
+        }
+
+        return symbols;
+    }
+
+    //! @description Reads a count that has to fit in an array.
+    protected static int readCount( Input in, String what ) throws IOException {
+        long n = in.readVarInt();
+        if (n < 0 || n > Integer.MAX_VALUE - 8) {
+            throw new IOException("Invalid " + what + " in trie snapshot: " + n + ".");
+        }
+        return (int) n;
+    }
+
+    //! @description Reads the node count; a snapshot has at least the root node.
+    protected static int readNodeCount( Input in ) throws IOException {
+        int n = readCount(in, "node count");
+        if (n < 1) {
+            throw new IOException("Invalid node count in trie snapshot: " + n + ".");
+        }
+        return n;
+    }
+
+    //! @description The key index of a node tag; -1 stands for a null key.
+    protected static int keyIndex( long tag, String[] symbols ) throws IOException {
+        long k = (tag >>> 1) - 1;
+        if (k >= symbols.length) {
+            throw new IOException("Invalid key index in trie snapshot: " + k + ".");
+        }
+        return (int) k;
+    }
+
+    //! @description Checks that a child comes after its previous sibling in key order, as written.
+    protected static void checkKeyOrder( int prevKeyIndex, int keyIndex, String[] symbols ) throws IOException {
+        String prev = prevKeyIndex < 0 ? null : symbols[prevKeyIndex];
+        String key = keyIndex < 0 ? null : symbols[keyIndex];
+        if (FrozenTrie.compareKeys(prev, key) >= 0) {
+            throw new IOException("Children out of key order in trie snapshot.");
+        }
+    }
+
+    //! @description Reads a trie snapshot from a channel.
+    //! @param channel a readable channel; it is not closed
+    public static Trie readTrie( ReadableByteChannel channel ) throws IOException {
+        Input in = new Input(channel);
+        String[] symbols = readHeader(in);
+        int nodeCount = readNodeCount(in);
+
+        Trie root = null;
+
+        // Stack of parents with the numbers of their children that are still to be read
+        // and the key indexes of their last read children.
+        Deque<Trie> parents = new ArrayDeque<>();
+        Deque<Integer> remaining = new ArrayDeque<>();
+        Deque<Integer> lastKeys = new ArrayDeque<>();
+
+        for (int i = 0; i < nodeCount; i++) {
+            long tag = in.readVarInt();
+            int keyIndex = keyIndex(tag, symbols);
+
+            Trie node = new Trie();
+            node.setKey(keyIndex < 0 ? null : symbols[keyIndex]);
+            if ((tag & 1) != 0) {
+                node.setDoubleValue(in.readDouble());
+            }
+            int childCount = readCount(in, "child count");
+
+            if (i == 0) {
+                root = node;
+            } else if (parents.isEmpty()) {
+                throw new IOException("Nodes after the root sub-trie in trie snapshot.");
+            } else {
+                Trie parent = parents.peek();
+                if (parent.getChildren() == null) {
+                    parent.setChildren(new HashMap<>());
+                } else {
+                    checkKeyOrder(lastKeys.peek(), keyIndex, symbols);
+                }
+                parent.getChildren().put(node.getKey(), node);
+
+                lastKeys.pop();
+                int r = remaining.pop() - 1;
+                if (r == 0) {
+                    parents.pop();
+                } else {
+                    remaining.push(r);
+                    lastKeys.push(keyIndex);
+                }
+            }
+
+            if (childCount > 0) {
+                parents.push(node);
+                remaining.push(childCount);
+                lastKeys.push(-1);
+            }
+        }
+
+        if (!parents.isEmpty()) {
+            throw new IOException("Missing nodes in trie snapshot.");
+        }
+
+        return root;
+    }
+
+    //! @description Reads a trie snapshot from a file.
+    //! @param path file path
+    public static Trie readTrie( Path path ) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readTrie(channel);
+        }
+    }
+
+    //! @description Reads a trie snapshot from a channel into a frozen trie.
+    //! @param channel a readable channel; it is not closed
+    //! @details No Trie objects are made.
+    public static FrozenTrie readFrozenTrie( ReadableByteChannel channel ) throws IOException {
+        Input in = new Input(channel);
+        String[] symbols = readHeader(in);
+        int n = readNodeCount(in);
+
+        // Read the pre-order nodes and link them into first-child / next-sibling lists.
+        int[] keyIds = new int[n];
+        double[] values = new double[n];
+        int[] childCounts = new int[n];
+        int[] firstChild = new int[n];
+        int[] nextSibling = new int[n];
+        Arrays.fill(firstChild, FrozenTrie.NO_NODE);
+        Arrays.fill(nextSibling, FrozenTrie.NO_NODE);
+
+        int[] parents = new int[16];
+        int[] remaining = new int[16];
+        int[] lastChild = new int[16];
+        int top = 0;
+
+        for (int i = 0; i < n; i++) {
+            long tag = in.readVarInt();
+            keyIds[i] = keyIndex(tag, symbols);
+            values[i] = (tag & 1) != 0 ? in.readDouble() : Double.NaN;
+            childCounts[i] = readCount(in, "child count");
+
+            if (i > 0 && top == 0) {
+                throw new IOException("Nodes after the root sub-trie in trie snapshot.");
+            }
+
+            if (top > 0) {
+                int p = top - 1;
+                if (lastChild[p] == FrozenTrie.NO_NODE) {
+                    firstChild[parents[p]] = i;
+                } else {
+                    checkKeyOrder(keyIds[lastChild[p]], keyIds[i], symbols);
+                    nextSibling[lastChild[p]] = i;
+                }
+                lastChild[p] = i;
+                if (--remaining[p] == 0) {
+                    top--;
+                }
+            }
+
+            if (childCounts[i] > 0) {
+                if (top == parents.length) {
+                    parents = Arrays.copyOf(parents, 2 * top);
+                    remaining = Arrays.copyOf(remaining, 2 * top);
+                    lastChild = Arrays.copyOf(lastChild, 2 * top);
+                }
+                parents[top] = i;
+                remaining[top] = childCounts[i];
+                lastChild[top] = FrozenTrie.NO_NODE;
+                top++;
+            }
+        }
+
+        if (top > 0) {
+            throw new IOException("Missing nodes in trie snapshot.");
+        }
+
+        // Breadth-first renumbering.
+        FrozenTrie res = new FrozenTrie();
+        res.precision = FrozenTrie.Precision.DOUBLE;
+        res.symbols = symbols;
+        res.childOffsets = new int[n + 1];
+        res.keyIds = new int[n];
+        res.values = new double[n];
+
+        int[] order = new int[n];
+        int tail = 0;
+        order[tail++] = 0;
+        res.childOffsets[0] = 1;
+
+        for (int i = 0; i < n; i++) {
+            int node = order[i];
+            res.keyIds[i] = keyIds[node];
+            res.values[i] = values[node];
+            res.childOffsets[i + 1] = res.childOffsets[i] + childCounts[node];
+
+            for (int ch = firstChild[node]; ch != FrozenTrie.NO_NODE; ch = nextSibling[ch]) {
+                order[tail++] = ch;
+            }
+        }
+
+        return res;
+    }
+
+    //! @description Reads a trie snapshot from a file into a frozen trie.
+    //! @param path file path
+    public static FrozenTrie readFrozenTrie( Path path ) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readFrozenTrie(channel);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+//! @description Statistics of the shape, values, and memory footprint of a trie.
+//! @details The statistics are found in one iterative traversal (no recursion, no per node allocations
+//! besides the children iterators; the counts are kept in primitive arrays until asked for). The heap estimates assume a 64-bit JVM with compressed references
+//! (12 bytes object headers, 4 bytes references, 8 bytes alignment) and children kept in HashMap objects
+//! filled by insertion, as made by TrieFunctions.create; they are estimates, not measurements.
+//! Here is way to use:
+//! System.out.println( TrieStatistics.compute( myTrie ) );
+public class TrieStatistics {
+
+    //! Node and object size estimates in bytes.
+    protected static final int TRIE_NODE_BYTES = 32;
+    protected static final int HASH_MAP_BYTES = 48;
+    protected static final int HASH_MAP_ENTRY_BYTES = 32;
+    protected static final int ARRAY_HEADER_BYTES = 16;
+    protected static final int STRING_BYTES = 24;
+
+    protected long nodeCount;
+    protected long internalCount;
+    protected long leafCount;
+    protected int maxDepth;
+
+    //! Number of nodes at each level; the root is at level 0. Only the first maxDepth+1 elements are used.
+    protected long[] depthHistogram = new long[16];
+
+    //! Sum of the node values at each level.
+    protected double[] valueMassPerLevel = new double[16];
+
+    //! Number of internal nodes for each number of children.
+    protected long[] fanOutDistribution = new long[16];
+
+    protected long distinctKeyCount;
+    protected long distinctKeyChars;
+
+    protected long trieNodeBytes;
+    protected long childMapBytes;
+    protected long keyBytes;
+
+    protected TrieStatistics() { }
+
+    //! @description Computes the statistics of a trie.
+    //! @param tr a trie object
+    public static TrieStatistics compute( Trie tr ) {
+        TrieStatistics res = new TrieStatistics();
+        if (tr != null) {
+            res.traverse(tr);
+        }
+        return res;
+    }
+
+    protected void traverse( Trie root ) {
+        Set<String> keys = new HashSet<>();
+        Set<String> keyObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        // The traversal stack: nodes and their levels.
+        Trie[] stack = new Trie[16];
+        int[] depths = new int[16];
+        int sp = 0;
+        stack[sp] = root;
+        depths[sp++] = 0;
+
+        while (sp > 0) {
+            Trie node = stack[--sp];
+            int depth = depths[sp];
+            stack[sp] = null;
+
+            nodeCount++;
+            maxDepth = Math.max(maxDepth, depth);
+            if (depthHistogram.length <= depth) {
+                depthHistogram = Arrays.copyOf(depthHistogram, 2 * depthHistogram.length);
+                valueMassPerLevel = Arrays.copyOf(valueMassPerLevel, 2 * valueMassPerLevel.length);
+            }
+            depthHistogram[depth]++;
+            valueMassPerLevel[depth] += node.getDoubleValue();
+
+            String key = node.getKey();
+            if (key != null) {
+                if (keys.add(key)) {
+                    distinctKeyChars += key.length();
+                }
+                if (keyObjects.add(key)) {
+                    keyBytes += STRING_BYTES + align(ARRAY_HEADER_BYTES + key.length());
+                }
+            }
+
+            trieNodeBytes += TRIE_NODE_BYTES;
+
+            Map<String, Trie> chs = node.getChildren();
+            if (chs == null || chs.isEmpty()) {
+                leafCount++;
+                if (chs != null) {
+                    childMapBytes += HASH_MAP_BYTES;
+                }
+                continue;
+            }
+
+            internalCount++;
+            if (fanOutDistribution.length <= chs.size()) {
+                fanOutDistribution = Arrays.copyOf(fanOutDistribution, Math.max(2 * fanOutDistribution.length, chs.size() + 1));
+            }
+            fanOutDistribution[chs.size()]++;
+            childMapBytes += HASH_MAP_BYTES + align(ARRAY_HEADER_BYTES + 4L * hashMapCapacity(chs.size())) +
+                    (long) HASH_MAP_ENTRY_BYTES * chs.size();
+
+            if (stack.length < sp + chs.size()) {
+                int n = Math.max(2 * stack.length, sp + chs.size());
+                stack = Arrays.copyOf(stack, n);
+                depths = Arrays.copyOf(depths, n);
+            }
+            for (Trie ch : chs.values()) {
+                stack[sp] = ch;
+                depths[sp++] = depth + 1;
+            }
+        }
+
+        distinctKeyCount = keys.size();
+    }
+
+    protected static long align( long bytes ) {
+        return (bytes + 7) & ~7L;
+    }
+
+    //! @description The table capacity of a HashMap with default settings after a given number of insertions.
+    protected static long hashMapCapacity( int size ) {
+        long cap = 16;
+        while (size > cap * 3 / 4) {
+            cap *= 2;
+        }
+        return cap;
+    }
+
+
+    ///**************************************************************
+    /// Accessors
+    ///**************************************************************
+
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    public long getInternalCount() {
+        return internalCount;
+    }
+
+    public long getLeafCount() {
+        return leafCount;
+    }
+
+    //! @description The maximum level of the nodes; the root is at level 0.
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    //! @description The number of nodes at each level.
+    public List<Long> getDepthHistogram() {
+        List<Long> res = new ArrayList<>(maxDepth + 1);
+        for (int i = 0; i <= maxDepth && nodeCount > 0; i++) {
+            res.add(depthHistogram[i]);
+        }
+        return Collections.unmodifiableList(res);
+    }
+
+    //! @description The sum of the node values at each level.
+    public List<Double> getValueMassPerLevel() {
+        List<Double> res = new ArrayList<>(maxDepth + 1);
+        for (int i = 0; i <= maxDepth && nodeCount > 0; i++) {
+            res.add(valueMassPerLevel[i]);
+        }
+        return Collections.unmodifiableList(res);
+    }
+
+    //! @description The number of internal nodes for each number of children.
+    public SortedMap<Integer, Long> getFanOutDistribution() {
+        SortedMap<Integer, Long> res = new TreeMap<>();
+        for (int i = 0; i < fanOutDistribution.length; i++) {
+            if (fanOutDistribution[i] > 0) {
+                res.put(i, fanOutDistribution[i]);
+            }
+        }
+        return Collections.unmodifiableSortedMap(res);
+    }
+
+    //! @description The mean number of children of the internal nodes.
+    public double getMeanFanOut() {
+        return internalCount == 0 ? 0 : (double) (nodeCount - 1) / internalCount;
+    }
+
+    //! @description The number of distinct (non-null) keys.
+    public long getDistinctKeyCount() {
+        return distinctKeyCount;
+    }
+
+    //! @description Estimated heap bytes of the Trie objects.
+    public long getTrieNodeBytes() {
+        return trieNodeBytes;
+    }
+
+    //! @description Estimated heap bytes of the children maps (maps, tables, and entries).
+    public long getChildMapBytes() {
+        return childMapBytes;
+    }
+
+    //! @description Estimated heap bytes of the key strings; strings shared by several nodes are counted once.
+    public long getKeyBytes() {
+        return keyBytes;
+    }
+
+    //! @description Estimated retained heap bytes of the trie.
+    public long getTotalBytes() {
+        return trieNodeBytes + childMapBytes + keyBytes;
+    }
+
+    //! @description Estimated heap bytes of the corresponding FrozenTrie object with double values.
+    public long getFrozenTrieBytes() {
+        return align(ARRAY_HEADER_BYTES + 4 * (nodeCount + 1)) +
+                align(ARRAY_HEADER_BYTES + 4 * nodeCount) +
+                align(ARRAY_HEADER_BYTES + 8 * nodeCount) +
+                align(ARRAY_HEADER_BYTES + 4 * distinctKeyCount) +
+                distinctKeyCount * STRING_BYTES + align(ARRAY_HEADER_BYTES) * distinctKeyCount + distinctKeyChars;
+    }
+
+    public String toString() {
+        return "{ \"nodes\":" + nodeCount +
+                ", \"internal\":" + internalCount +
+                ", \"leaves\":" + leafCount +
+                ", \"maxDepth\":" + maxDepth +
+                ", \"distinctKeys\":" + distinctKeyCount +
+                ", \"meanFanOut\":" + getMeanFanOut() +
+                ", \"depthHistogram\":" + getDepthHistogram() +
+                ", \"valueMassPerLevel\":" + getValueMassPerLevel() +
+                ", \"fanOutDistribution\":" + getFanOutDistribution().toString().replaceAll("(\\d+)=", "\"$1\":") +
+                ", \"trieNodeBytes\":" + trieNodeBytes +
+                ", \"childMapBytes\":" + childMapBytes +
+                ", \"keyBytes\":" + keyBytes +
+                ", \"totalBytes\":" + getTotalBytes() +
+                ", \"frozenTrieBytes\":" + getFrozenTrieBytes() + " }";
+    }
+}
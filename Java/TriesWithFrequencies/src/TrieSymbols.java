@@ -0,0 +1,152 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+//! @description A dictionary of the distinct keys (symbols) of tries.
+//! @details Each distinct string is assigned a non-negative integer id in order of appearance.
+//! The dictionary can be shared between threads; only the addition of new symbols takes a lock.
+public class TrieSymbols {
+
+    //! @description The id of symbols that are not in the dictionary.
+    public static final int NO_SYMBOL = -1;
+
+    protected Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    // Written only under the lock of intern. The symbol is stored (and a grown array published)
+    // before count is incremented, so reading count first gives a consistent view without locking.
+    protected volatile String[] symbols = new String[16];
+    protected volatile int count = 0;
+
+    public TrieSymbols() { }
+
+    //! @description The number of symbols in the dictionary.
+    public int size() {
+        return count;
+    }
+
+    //! @description Gives the id of a symbol; the symbol is added to the dictionary if not there.
+    //! @param s a string
+    //! @details Only adding new symbols is synchronized; the look-ups are not.
+    public int intern( String s ) {
+        Integer id = ids.get(s);
+        return id != null ? id : add(s);
+    }
+
+    protected synchronized int add( String s ) {
+        Integer id = ids.get(s);
+        if (id != null) {
+            return id;
+        }
+        int n = count;
+        String[] arr = symbols;
+        if (n == arr.length) {
+            arr = Arrays.copyOf(arr, n + (n >> 1));
+            arr[n] = s;
+            symbols = arr;
+        } else {
+            arr[n] = s;
+        }
+        count = n + 1;
+        ids.put(s, n);
+        return n;
+    }
+
+    //! @description Gives the dictionary instance of a string.
+    //! @param s a string
+    //! @details Equal strings are mapped to the same String object.
+    public String canonical( String s ) {
+        return symbol(intern(s));
+    }
+
+    //! @description Gives the id of a symbol or NO_SYMBOL if the symbol is not in the dictionary.
+    //! @param s a string
+    public int id( String s ) {
+        Integer id = ids.get(s);
+        return id == null ? NO_SYMBOL : id;
+    }
+
+    //! @description Gives the symbol with a given id.
+    //! @param id a symbol id
+    public String symbol( int id ) {
+        if (id < 0) {
+            return null;
+        }
+        Objects.checkIndex(id, count);
+        return symbols[id];
+    }
+
+    //! @description Gives the ids of a list of strings without adding new symbols.
+    //! @param word a list of strings
+    //! @details Strings not in the dictionary get the id NO_SYMBOL.
+    public int[] encode( List<String> word ) {
+        int[] res = new int[word.size()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = id(word.get(i));
+        }
+        return res;
+    }
+
+    //! @description Gives the ids of a list of strings; new strings are added to the dictionary.
+    //! @param word a list of strings
+    public int[] internAll( List<String> word ) {
+        int[] res = new int[word.size()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = intern(word.get(i));
+        }
+        return res;
+    }
+
+    //! @description Gives the list of symbols that correspond to the first n of given ids.
+    //! @param ids symbol ids
+    //! @param n number of ids to decode
+    public List<String> decode( int[] ids, int n ) {
+        List<String> res = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            res.add(symbol(ids[i]));
+        }
+        return res;
+    }
+
+    //! @description Gives the list of symbols that correspond to given ids.
+    //! @param ids symbol ids
+    public List<String> decode( int[] ids ) {
+        return decode(ids, ids.length);
+    }
+}
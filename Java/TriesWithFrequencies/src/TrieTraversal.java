@@ -0,0 +1,169 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+//! @description Depth-first traversal of tries with explicit stacks.
+//! @details The traversal functions do not recurse, so the depth of the tries they can handle is limited
+//! only by the heap. The children of a node are visited in the iteration order of its children map,
+//! i.e. in the same order as a recursive traversal would visit them.
+//! Here is way to use:
+//! TrieTraversal.traverse( myTrie, ( node, depth ) -> { System.out.println( depth + " : " + node.getKey() ); return true; } );
+public class TrieTraversal {
+
+    //! @description Interface for visitors with pre-order and post-order callbacks.
+    public interface Visitor {
+        //! @description Called before the children of a node are visited.
+        //! @param node a node
+        //! @param depth the level of the node; the start node is at level 0
+        //! @return Should the children of the node be visited.
+        boolean preVisit( Trie node, int depth );
+
+        //! @description Called after the children of a node are visited (or skipped).
+        default void postVisit( Trie node, int depth ) { }
+    }
+
+    //! @description Interface for bottom-up computations over tries.
+    //! @details The results for the children of a node are given to postVisit of the node.
+    public interface Folder<R> {
+        //! @description Called before the children of a node are visited.
+        //! @param node a node
+        //! @param depth the level of the node; the start node is at level 0
+        //! @return The node the children of which are to be visited -- usually the given node;
+        //! null if the children should not be visited.
+        default Trie preVisit( Trie node, int depth ) { return node; }
+
+        //! @description Called after the children of a node are visited.
+        //! @param node the node returned by preVisit, or the given node if preVisit returned null
+        //! @param depth the level of the node
+        //! @param childResults the results for the children keyed by the keys in the children map;
+        //! null if the node has no children or they were not visited
+        R postVisit( Trie node, int depth, Map<String, R> childResults );
+    }
+
+    //! @description Traverses a trie depth-first.
+    //! @param tr a trie object
+    //! @param visitor a visitor object
+    public static void traverse( Trie tr, Visitor visitor ) {
+        if (tr == null) {
+            return;
+        }
+
+        Deque<Trie> nodes = new ArrayDeque<>();
+        Deque<Iterator<Trie>> iterators = new ArrayDeque<>();
+
+        if (!enter(tr, 0, visitor, nodes, iterators)) {
+            return;
+        }
+
+        while (!iterators.isEmpty()) {
+            Iterator<Trie> it = iterators.peek();
+            if (it.hasNext()) {
+                enter(it.next(), iterators.size(), visitor, nodes, iterators);
+            } else {
+                iterators.pop();
+                visitor.postVisit(nodes.pop(), iterators.size());
+            }
+        }
+    }
+
+    //! @return Was the node pushed on the stacks.
+    private static boolean enter( Trie node, int depth, Visitor visitor, Deque<Trie> nodes, Deque<Iterator<Trie>> iterators ) {
+        if (visitor.preVisit(node, depth) && !TrieFunctions.leafQ(node)) {
+            nodes.push(node);
+            iterators.push(node.getChildren().values().iterator());
+            return true;
+        }
+        visitor.postVisit(node, depth);
+        return false;
+    }
+
+    //! @description A node of the fold stack.
+    private static class FoldFrame<R> {
+        FoldFrame( Trie node, String key ) {
+            this.node = node; this.key = key;
+            this.it = node.getChildren().entrySet().iterator();
+            this.results = new HashMap<>();
+        }
+
+        public Trie node;
+        public String key;
+        public Iterator<Map.Entry<String, Trie>> it;
+        public Map<String, R> results;
+    }
+
+    //! @description Computes a result for a trie bottom-up.
+    //! @param tr a trie object
+    //! @param folder a folder object
+    //! @return The result of postVisit for the start node.
+    public static <R> R fold( Trie tr, Folder<R> folder ) {
+        if (tr == null) {
+            return null;
+        }
+
+        Deque<FoldFrame<R>> stack = new ArrayDeque<>();
+
+        Trie entered = folder.preVisit(tr, 0);
+        if (entered == null || TrieFunctions.leafQ(entered)) {
+            return folder.postVisit(entered == null ? tr : entered, 0, null);
+        }
+        stack.push(new FoldFrame<>(entered, null));
+
+        while (true) {
+            FoldFrame<R> f = stack.peek();
+
+            if (f.it.hasNext()) {
+                Map.Entry<String, Trie> elem = f.it.next();
+                int depth = stack.size();
+                Trie ch = folder.preVisit(elem.getValue(), depth);
+                if (ch == null || TrieFunctions.leafQ(ch)) {
+                    f.results.put(elem.getKey(), folder.postVisit(ch == null ? elem.getValue() : ch, depth, null));
+                } else {
+                    stack.push(new FoldFrame<>(ch, elem.getKey()));
+                }
+            } else {
+                stack.pop();
+                R r = folder.postVisit(f.node, stack.size(), f.results);
+                if (stack.isEmpty()) {
+                    return r;
+                }
+                stack.peek().results.put(f.key, r);
+            }
+        }
+    }
+}
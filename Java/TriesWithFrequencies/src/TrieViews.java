@@ -0,0 +1,418 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+//! @description Read-only views over trie objects.
+//! @details The views compute the transformed keys, values and children on access, nothing is copied.
+//! Since the views are Trie objects the retrieval and path functions of TrieFunctions can be applied to them,
+//! and views can be composed, e.g. probabilities(removeByThreshold(tr, 2)).
+//! The views reflect the changes of the underlying trie; they cannot be changed themselves.
+//! A view can be materialized with clone().
+public class TrieViews {
+
+    ///**************************************************************
+    /// View base classes
+    ///**************************************************************
+
+    //! @description Base class of the trie views.
+    //! @details The view node objects are created when the children are accessed; they are small and short lived.
+    //! The children map of a view node is made once; it reads the children of the underlying node on access.
+    protected static abstract class View extends Trie {
+        protected final Trie base;
+        protected Map<String, Trie> viewChildren;
+
+        View( Trie base ) { this.base = base; }
+
+        //! @description Makes the view of a child of the underlying node; null if the child is not in the view.
+        protected abstract Trie wrap( Trie ch );
+
+        //! @description Is a child of the underlying node in the view?
+        //! @details Used to count the children without wrapping them.
+        protected boolean inViewQ( Trie ch ) {
+            return true;
+        }
+
+        @Override
+        public String getKey() {
+            return base.getKey();
+        }
+
+        @Override
+        public double getDoubleValue() {
+            return base.getDoubleValue();
+        }
+
+        @Override
+        public boolean hasValue() {
+            return base.hasValue();
+        }
+
+        @Override
+        public Map<String, Trie> getChildren() {
+            if (base.getChildren() == null) {
+                return null;
+            }
+            if (viewChildren == null) {
+                viewChildren = new ViewChildren(this);
+            }
+            return viewChildren;
+        }
+
+        @Override
+        public void setKey( String key ) {
+            throw new UnsupportedOperationException("Trie views cannot be changed.");
+        }
+
+        @Override
+        public void setValue( Double value ) {
+            throw new UnsupportedOperationException("Trie views cannot be changed.");
+        }
+
+        @Override
+        public void setDoubleValue( double value ) {
+            throw new UnsupportedOperationException("Trie views cannot be changed.");
+        }
+
+        @Override
+        public void setChildren( Map<String, Trie> children ) {
+            throw new UnsupportedOperationException("Trie views cannot be changed.");
+        }
+    }
+
+    //! @description Read-only map of the children of a view node.
+    //! @details Lookups by key wrap a single child, iteration wraps the children one at a time;
+    //! the size is found without wrapping.
+    protected static class ViewChildren extends AbstractMap<String, Trie> {
+        protected final View node;
+
+        ViewChildren( View node ) { this.node = node; }
+
+        @Override
+        public Trie get( Object k ) {
+            Trie ch = node.base.getChildren().get(k);
+            return ch == null ? null : node.wrap(ch);
+        }
+
+        @Override
+        public boolean containsKey( Object k ) {
+            Trie ch = node.base.getChildren().get(k);
+            return ch != null && node.inViewQ(ch);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            for (Trie ch : node.base.getChildren().values()) {
+                if (node.inViewQ(ch)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int size() {
+            int n = 0;
+            for (Trie ch : node.base.getChildren().values()) {
+                if (node.inViewQ(ch)) {
+                    n++;
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public Set<Entry<String, Trie>> entrySet() {
+            return new AbstractSet<Entry<String, Trie>>() {
+                @Override
+                public Iterator<Entry<String, Trie>> iterator() {
+                    return new ViewIterator(node);
+                }
+
+                @Override
+                public int size() {
+                    return ViewChildren.this.size();
+                }
+            };
+        }
+    }
+
+    //! @description Iterator over the wrapped children of a view node; skips the children that are not in the view.
+    protected static class ViewIterator implements Iterator<Map.Entry<String, Trie>> {
+        protected final View node;
+        protected final Iterator<Trie> baseIt;
+        protected Trie next;
+
+        ViewIterator( View node ) {
+            this.node = node;
+            this.baseIt = node.base.getChildren().values().iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && baseIt.hasNext()) {
+                next = node.wrap(baseIt.next());
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, Trie> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Trie res = next;
+            next = null;
+            return new AbstractMap.SimpleImmutableEntry<>(res.getKey(), res);
+        }
+    }
+
+
+    ///**************************************************************
+    /// Probabilities view
+    ///**************************************************************
+
+    protected static class ProbabilitiesView extends View {
+        protected final double parentSum;
+
+        ProbabilitiesView( Trie base, double parentSum ) { super(base); this.parentSum = parentSum; }
+
+        @Override
+        public double getDoubleValue() {
+            return parentSum == 0 ? 1.0 : base.getDoubleValue() / parentSum;
+        }
+
+        @Override
+        public boolean hasValue() {
+            return true;
+        }
+
+        @Override
+        protected Trie wrap( Trie ch ) {
+            double chSum = base.getDoubleValue();
+            if (chSum == 0) {
+                // Same fall back as in TrieFunctions.nodeProbabilities.
+                for (Trie elem : base.getChildren().values()) {
+                    chSum += elem.getDoubleValue();
+                }
+            }
+            return new ProbabilitiesView(ch, chSum);
+        }
+    }
+
+    //! @description A view that has the node probabilities instead of the node frequencies.
+    //! @param tr a trie object
+    //! @details Corresponds to TrieFunctions.nodeProbabilities; the value of the root is 1.
+    public static Trie nodeProbabilities( Trie tr ) {
+        return new ProbabilitiesView(tr, 0);
+    }
+
+
+    ///**************************************************************
+    /// Pruned view
+    ///**************************************************************
+
+    protected static class PrunedView extends View {
+        protected final int maxLevel;
+        protected final int level;
+
+        PrunedView( Trie base, int maxLevel, int level ) { super(base); this.maxLevel = maxLevel; this.level = level; }
+
+        @Override
+        public Map<String, Trie> getChildren() {
+            if (maxLevel >= 0 && level >= maxLevel) {
+                return null;
+            }
+            return super.getChildren();
+        }
+
+        @Override
+        protected Trie wrap( Trie ch ) {
+            return new PrunedView(ch, maxLevel, level + 1);
+        }
+    }
+
+    //! @description A view that has only the nodes up to a specified maximum level.
+    //! @param tr a trie object
+    //! @param maxLevel maximum level
+    //! @details Corresponds to TrieFunctions.prune.
+    public static Trie prune( Trie tr, int maxLevel ) {
+        return new PrunedView(tr, maxLevel, 0);
+    }
+
+
+    ///**************************************************************
+    /// Threshold view
+    ///**************************************************************
+
+    protected static class ThresholdView extends View {
+        protected final double threshold;
+        protected final boolean belowThresholdQ;
+        protected final String postfix;
+
+        ThresholdView( Trie base, double threshold, boolean belowThresholdQ, String postfix ) {
+            super(base); this.threshold = threshold; this.belowThresholdQ = belowThresholdQ; this.postfix = postfix;
+        }
+
+        @Override
+        public Map<String, Trie> getChildren() {
+            if (base.getChildren() == null) {
+                return null;
+            }
+            if (viewChildren == null) {
+                viewChildren = postfix == null ? new ViewChildren(this) : new ThresholdViewChildren(this);
+            }
+            return viewChildren;
+        }
+
+        protected boolean keepQ( Trie ch ) {
+            return belowThresholdQ && ch.getDoubleValue() >= threshold ||
+                    !belowThresholdQ && ch.getDoubleValue() < threshold;
+        }
+
+        @Override
+        protected boolean inViewQ( Trie ch ) {
+            return keepQ(ch);
+        }
+
+        @Override
+        protected Trie wrap( Trie ch ) {
+            return keepQ(ch) ? new ThresholdView(ch, threshold, belowThresholdQ, postfix) : null;
+        }
+    }
+
+    //! @description Children of a threshold view node with the removed values summed into a postfix node.
+    //! @details The postfix node is computed on access, since the map is kept by the view node.
+    protected static class ThresholdViewChildren extends AbstractMap<String, Trie> {
+        protected final ThresholdView node;
+        protected final Map<String, Trie> kept;
+
+        ThresholdViewChildren( ThresholdView node ) { this.node = node; this.kept = new ViewChildren(node); }
+
+        protected Trie postfixNode() {
+            double removedSum = 0;
+            for (Trie ch : node.base.getChildren().values()) {
+                if (!node.keepQ(ch)) {
+                    removedSum += ch.getDoubleValue();
+                }
+            }
+            return removedSum > 0 ? new Trie(node.postfix, removedSum) : null;
+        }
+
+        @Override
+        public Trie get( Object k ) {
+            Trie res = kept.get(k);
+            if (res == null && node.postfix.equals(k)) {
+                res = postfixNode();
+            }
+            return res;
+        }
+
+        @Override
+        public boolean containsKey( Object k ) {
+            return get(k) != null;
+        }
+
+        @Override
+        public Set<Entry<String, Trie>> entrySet() {
+            return new AbstractSet<Entry<String, Trie>>() {
+                @Override
+                public Iterator<Entry<String, Trie>> iterator() {
+                    Iterator<Entry<String, Trie>> keptIt = kept.entrySet().iterator();
+                    return new Iterator<Entry<String, Trie>>() {
+                        Trie postfixNode;
+                        boolean postfixQ = false;
+                        boolean postfixDoneQ = false;
+
+                        @Override
+                        public boolean hasNext() {
+                            if (keptIt.hasNext()) {
+                                return true;
+                            }
+                            if (!postfixQ) {
+                                postfixNode = postfixNode();
+                                postfixQ = true;
+                            }
+                            return !postfixDoneQ && postfixNode != null;
+                        }
+
+                        @Override
+                        public Entry<String, Trie> next() {
+                            if (keptIt.hasNext()) {
+                                return keptIt.next();
+                            }
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            postfixDoneQ = true;
+                            return new AbstractMap.SimpleImmutableEntry<>(node.postfix, postfixNode);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return kept.size() + (postfixNode() == null ? 0 : 1);
+                }
+            };
+        }
+    }
+
+    //! @description A view without the nodes with values below a specified threshold.
+    public static Trie removeByThreshold( Trie tr, double threshold ) {
+        return removeByThreshold(tr, threshold, true, null);
+    }
+
+    //! @description A view without the nodes with values below a specified threshold.
+    public static Trie removeByThreshold( Trie tr, double threshold, String postfix ) {
+        return removeByThreshold(tr, threshold, true, postfix);
+    }
+
+    //! @description A view without the nodes with values below/above a specified threshold.
+    public static Trie removeByThreshold( Trie tr, double threshold, boolean belowThresholdQ ) {
+        return removeByThreshold(tr, threshold, belowThresholdQ, null);
+    }
+
+    //! @description A view without the nodes with values below or above a specified threshold.
+    //! @details Corresponds to TrieFunctions.removeByThreshold; the removed values of the children of a node
+    //! are summed into a leaf with the key postfix (if postfix is not null).
+    public static Trie removeByThreshold( Trie tr, double threshold, boolean belowThresholdQ, String postfix ) {
+        return new ThresholdView(tr, threshold, belowThresholdQ, postfix);
+    }
+}
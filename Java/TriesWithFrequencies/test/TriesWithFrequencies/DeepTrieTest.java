@@ -0,0 +1,217 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//! @description Checks that the traversal based functions handle tries far deeper than the thread stack allows
+//! for recursion.
+//! @details The trie has two words: the first one, inserted twice, has DEPTH elements; the second one
+//! branches off from the middle of the first one.
+public class DeepTrieTest {
+
+    static final int DEPTH = 200000;
+
+    //! The depth used for the functions the results of which have a size quadratic in the depth.
+    static final int SHALLOW_DEPTH = 10000;
+
+    static List<String> word1;
+    static List<String> word2;
+    static Trie tr;
+
+    @BeforeAll
+    static void makeTrie() {
+        word1 = new ArrayList<>(DEPTH);
+        for (int i = 0; i < DEPTH; i++) {
+            word1.add(i % 2 == 0 ? "a" : "b");
+        }
+        word2 = new ArrayList<>(word1.subList(0, DEPTH / 2));
+        word2.add("c");
+
+        tr = TrieFunctions.create(Arrays.asList(word1, word2, word1));
+    }
+
+    //! @description The depth of the deepest leaf, found by following the first children.
+    static int depth( Trie tr ) {
+        int n = 0;
+        for (Trie node = tr; node.getChildren() != null && !node.getChildren().isEmpty(); n++) {
+            node = node.getChildren().containsKey("a") ? node.getChildren().get("a") :
+                    node.getChildren().containsKey("b") ? node.getChildren().get("b") :
+                            node.getChildren().values().iterator().next();
+        }
+        return n;
+    }
+
+    @Test
+    public void cloneAndEquals() {
+        Trie cl = tr.clone();
+        assertTrue(tr.equals(cl));
+        assertEquals(DEPTH, depth(cl));
+
+        Trie node = TrieFunctions.retrieve(cl, word1);
+        node.setValue(node.getValue() + 1);
+        assertFalse(tr.equals(cl));
+    }
+
+    @Test
+    public void insertAndMerge() {
+        Trie res = TrieFunctions.merge(tr.clone(), tr.clone());
+        assertEquals(6.0, res.getValue());
+        assertEquals(4.0, TrieFunctions.retrieve(res, word1).getValue());
+
+        res = TrieFunctions.insert(tr.clone(), word2);
+        assertEquals(2.0, TrieFunctions.retrieve(res, word2).getValue());
+
+        res = TrieFunctions.insertInPlace(tr.clone(), word1);
+        assertEquals(3.0, TrieFunctions.retrieve(res, word1).getValue());
+    }
+
+    @Test
+    public void toJSONAndToString() throws IOException {
+        String json = tr.toJSON();
+        assertTrue(json.startsWith("{ \"key\":\"\", \"value\":3.0, \"children\":[{ \"key\":\"a\""));
+        assertEquals(DEPTH + 2, json.split("\\{", -1).length - 1);
+
+        // The string form indents each level, so its size is quadratic in the depth; a shallower trie is used.
+        Trie shallower = TrieFunctions.prune(tr, SHALLOW_DEPTH);
+        StringWriter out = new StringWriter();
+        shallower.writeString(out);
+        String str = out.toString();
+        int n = 0;
+        for (int i = str.indexOf("[ key="); i >= 0; i = str.indexOf("[ key=", i + 1)) {
+            n++;
+        }
+        assertEquals(SHALLOW_DEPTH + 1, n);
+        assertEquals(str, shallower.toString());
+    }
+
+    @Test
+    public void shrinkMapAndPrune() {
+        // Without joining of nodes.
+        assertTrue(tr.equals(TrieFunctions.shrinkByThreshold(tr, "", 4)));
+
+        // The joined keys are made by concatenation at each level; a shallower trie is used.
+        Trie sh = TrieFunctions.shrink(TrieFunctions.prune(tr, SHALLOW_DEPTH));
+        assertEquals(Arrays.asList(2, 1, 1), TrieFunctions.nodeCounts(sh));
+        assertEquals(SHALLOW_DEPTH, sh.getChildren().values().iterator().next().getKey().length());
+
+        Trie m = TrieFunctions.map(tr, ( k, v ) -> new TrieFunctions.Pair<>(k, 2 * v));
+        assertEquals(6.0, m.getValue());
+        assertEquals(DEPTH, depth(m));
+
+        m = TrieFunctions.map(tr, node -> new Trie(node.getKey(), node.getValue(), node.getChildren()), null);
+        assertTrue(tr.equals(m));
+
+        assertEquals(DEPTH / 4, depth(TrieFunctions.prune(tr, DEPTH / 4)));
+        assertEquals(Arrays.asList(DEPTH + 2, DEPTH, 2), TrieFunctions.nodeCounts(tr));
+    }
+
+    @Test
+    public void probabilitiesAndPaths() {
+        Trie ptr = TrieFunctions.nodeProbabilities(tr);
+        assertEquals(1.0, ptr.getValue());
+        assertEquals(2.0 / 3, TrieFunctions.retrieve(ptr, word1.subList(0, DEPTH / 2 + 1)).getValue());
+
+        List<List<Map.Entry<String, Double>>> paths = TrieFunctions.rootToLeafPaths(tr);
+        assertEquals(2, paths.size());
+        // With the root.
+        assertEquals(DEPTH + 1, Math.max(paths.get(0).size(), paths.get(1).size()));
+        assertEquals(DEPTH / 2 + 2, Math.min(paths.get(0).size(), paths.get(1).size()));
+        assertEquals(2, TrieFunctions.getWords(tr).size());
+
+        Map<String, Double> leafProbs = TrieFunctions.leafProbabilities(ptr);
+        assertEquals(2.0 / 3, leafProbs.get("b"), 1e-12);
+        assertEquals(1.0 / 3, leafProbs.get("c"), 1e-12);
+
+        assertEquals(2, TrieFunctions.topRootToLeafPaths(ptr, 5).size());
+    }
+
+    @Test
+    public void removals() {
+        assertEquals(DEPTH / 2, depth(TrieFunctions.removeByThreshold(tr, 3)));
+        assertEquals(DEPTH, depth(TrieFunctions.removeByKeyRegex(tr, "c", "R")));
+        assertEquals(DEPTH, depth(TrieFunctions.removeByParetoFraction(tr, 0.5)));
+
+        TrieReduction.Result res = new TrieReduction()
+                .removeByThreshold(2)
+                .removeByKeyRegex("c")
+                .prune(DEPTH - 1)
+                .apply(tr);
+        assertEquals(DEPTH - 1, depth(res.getTrie()));
+        assertEquals(1, res.getRemovedCounts()[0]);
+    }
+
+    @Test
+    public void frozenTrie() {
+        FrozenTrie ft = new FrozenTrie(tr);
+        assertEquals(DEPTH + 2, ft.size());
+        assertTrue(tr.equals(ft.toTrie()));
+        assertEquals(TrieFunctions.getWords(tr), ft.getWords());
+        assertEquals(DEPTH, depth(ft.removeByParetoFraction(0.5, true, null)));
+
+        Map<String, Double> leafProbs = new FrozenTrie(TrieFunctions.nodeProbabilities(tr)).leafProbabilities();
+        assertEquals(2.0 / 3, leafProbs.get("b"), 1e-12);
+    }
+
+    @Test
+    public void persistentTrie() {
+        PersistentTrie pt = PersistentTrie.fromTrie(tr);
+        assertTrue(tr.equals(pt.toTrie()));
+
+        PersistentTrie pt2 = PersistentTrie.empty().insert(word1).insert(word2).insert(word1);
+        assertTrue(tr.equals(pt2.toTrie()));
+        assertEquals(TrieFunctions.getWords(tr), pt2.getWords());
+
+        assertEquals(6.0, pt.merge(pt2).getValue());
+    }
+
+    @Test
+    public void intTrie() {
+        TrieSymbols symbols = new TrieSymbols();
+        IntTrie itr = IntTrieFunctions.fromTrie(tr, symbols);
+        assertTrue(tr.equals(IntTrieFunctions.toTrie(itr, symbols)));
+        assertEquals(TrieFunctions.getWords(tr), IntTrieFunctions.getWords(itr, symbols));
+    }
+}
@@ -0,0 +1,207 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//! @description Checks that the iterative trie functions give the same results as the recursive ones
+//! they replaced (see RecursiveTrieFunctions) on random tries.
+public class IterativeTrieFunctionsTest {
+
+    static final int N_TRIES = 300;
+
+    //! @description Applies a check to random frequency tries and their node probability tries.
+    static void forRandomTries( long seed, BiConsumer<Trie, Random> check ) {
+        Random rnd = new Random(seed);
+        for (int k = 0; k < N_TRIES; k++) {
+            Trie tr = TrieFunctions.create(TrieReductionTest.randomWords(rnd, 1 + rnd.nextInt(80), 2 + rnd.nextInt(8), 8));
+            check.accept(tr, rnd);
+            check.accept(RecursiveTrieFunctions.nodeProbabilities(tr), rnd);
+        }
+    }
+
+    //! @description Compares the tries through the keys of the children maps, which may differ
+    //! from the keys of the nodes (e.g. after map).
+    static boolean sameTrie( Trie tr1, Trie tr2 ) {
+        if (!tr1.getKey().equals(tr2.getKey()) || !tr1.getValue().equals(tr2.getValue())) {
+            return false;
+        }
+        boolean b1 = tr1.getChildren() != null && !tr1.getChildren().isEmpty();
+        boolean b2 = tr2.getChildren() != null && !tr2.getChildren().isEmpty();
+        if (!b1 || !b2) {
+            return b1 == b2;
+        }
+        if (!tr1.getChildren().keySet().equals(tr2.getChildren().keySet())) {
+            return false;
+        }
+        for (Map.Entry<String, Trie> e : tr1.getChildren().entrySet()) {
+            if (!sameTrie(e.getValue(), tr2.getChildren().get(e.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static void assertSameTrie( Trie expected, Trie actual ) {
+        assertTrue(sameTrie(expected, actual),
+                () -> "Expected: " + RecursiveTrieFunctions.toJSON(expected, -1) + "\nActual: " + RecursiveTrieFunctions.toJSON(actual, -1));
+    }
+
+    @Test
+    public void cloneAndEquals() {
+        forRandomTries(1, ( tr, rnd ) -> {
+            Trie cl = tr.clone();
+            assertSameTrie(RecursiveTrieFunctions.clone(tr), cl);
+            assertTrue(tr.equals(cl));
+
+            // Change the value of a random node of the copy.
+            Trie node = cl;
+            while (node.getChildren() != null && !node.getChildren().isEmpty() && rnd.nextBoolean()) {
+                List<Trie> chs = new ArrayList<>(node.getChildren().values());
+                node = chs.get(rnd.nextInt(chs.size()));
+            }
+            node.setValue(node.getValue() + 1);
+            assertEquals(RecursiveTrieFunctions.equals(tr, cl), tr.equals(cl));
+            assertFalse(tr.equals(cl));
+        });
+    }
+
+    @Test
+    public void merge() {
+        forRandomTries(2, ( tr, rnd ) -> {
+            Trie tr2 = TrieFunctions.create(TrieReductionTest.randomWords(rnd, 1 + rnd.nextInt(80), 2 + rnd.nextInt(8), 8));
+            // The merge functions change their arguments.
+            Trie expected = RecursiveTrieFunctions.merge(tr.clone(), tr2.clone());
+            assertSameTrie(expected, TrieFunctions.merge(tr.clone(), tr2.clone()));
+        });
+    }
+
+    @Test
+    public void toJSONAndToString() {
+        forRandomTries(3, ( tr, rnd ) -> {
+            assertEquals(RecursiveTrieFunctions.toJSON(tr, -1), tr.toJSON());
+            int maxLevel = rnd.nextInt(5);
+            assertEquals(RecursiveTrieFunctions.toJSON(tr, maxLevel), tr.toJSON(maxLevel));
+            assertEquals(RecursiveTrieFunctions.toString(tr), tr.toString());
+        });
+    }
+
+    @Test
+    public void shrink() {
+        forRandomTries(4, ( tr, rnd ) -> {
+            assertSameTrie(RecursiveTrieFunctions.shrinkRec(tr, "", -1, false, 0), TrieFunctions.shrink(tr));
+            assertSameTrie(RecursiveTrieFunctions.shrinkRec(tr, ".", -1, false, 0), TrieFunctions.shrink(tr, "."));
+            double threshold = tr.getValue() <= 1 ? 0.5 : 2;
+            assertSameTrie(RecursiveTrieFunctions.shrinkRec(tr, ".", threshold, false, 0), TrieFunctions.shrinkByThreshold(tr, ".", threshold));
+            assertSameTrie(RecursiveTrieFunctions.shrinkRec(tr, ".", threshold, true, 0), TrieFunctions.shrinkInternalNodes(tr, ".", threshold));
+        });
+    }
+
+    @Test
+    public void map() {
+        TrieFunctions.TrieKeyValueFunction func = ( k, v ) -> new TrieFunctions.Pair<>(k + ":M", 2 * v);
+
+        // Drops the children with values less than the half of the node value.
+        TrieFunctions.TrieNodeFunction preFunc = node -> {
+            if (node.getChildren() == null) {
+                return new Trie(node.getKey(), node.getValue());
+            }
+            Map<String, Trie> chs = new HashMap<>();
+            for (Trie ch : node.getChildren().values()) {
+                if (2 * ch.getValue() >= node.getValue()) {
+                    chs.put(ch.getKey(), ch);
+                }
+            }
+            return new Trie(node.getKey(), node.getValue(), chs);
+        };
+        TrieFunctions.TrieNodeFunction postFunc = node -> new Trie(node.getKey() + ":P", node.getValue() + 1);
+
+        forRandomTries(5, ( tr, rnd ) -> {
+            assertSameTrie(RecursiveTrieFunctions.map(tr, func), TrieFunctions.map(tr, func));
+            assertSameTrie(RecursiveTrieFunctions.map(tr, preFunc, postFunc), TrieFunctions.map(tr, preFunc, postFunc));
+            assertSameTrie(RecursiveTrieFunctions.map(tr, preFunc, null), TrieFunctions.map(tr, preFunc, null));
+            assertSameTrie(RecursiveTrieFunctions.map(tr, null, postFunc), TrieFunctions.map(tr, null, postFunc));
+        });
+    }
+
+    @Test
+    public void prune() {
+        forRandomTries(6, ( tr, rnd ) -> {
+            for (int maxLevel = -1; maxLevel < 5; maxLevel++) {
+                assertSameTrie(RecursiveTrieFunctions.prune(tr, maxLevel), TrieFunctions.prune(tr, maxLevel));
+            }
+        });
+    }
+
+    @Test
+    public void nodeProbabilities() {
+        forRandomTries(7, ( tr, rnd ) ->
+                assertSameTrie(RecursiveTrieFunctions.nodeProbabilities(tr), TrieFunctions.nodeProbabilities(tr)));
+    }
+
+    @Test
+    public void rootToLeafPaths() {
+        forRandomTries(8, ( tr, rnd ) -> {
+            List<List<Map.Entry<String, Double>>> expected = RecursiveTrieFunctions.rootToLeafPaths(tr);
+            List<List<Map.Entry<String, Double>>> actual = TrieFunctions.rootToLeafPaths(tr);
+            assertEquals(TrieFunctions.pathsKeys(expected), TrieFunctions.pathsKeys(actual));
+            assertEquals(TrieFunctions.pathsValues(expected), TrieFunctions.pathsValues(actual));
+            assertEquals(TrieFunctions.pathsKeys(expected), TrieFunctions.getWords(tr));
+        });
+    }
+
+    @Test
+    public void leafProbabilities() {
+        forRandomTries(9, ( tr, rnd ) -> {
+            Trie ptr = TrieFunctions.nodeProbabilities(tr);
+            Map<String, Double> expected = RecursiveTrieFunctions.leafProbabilities(ptr);
+            Map<String, Double> actual = TrieFunctions.leafProbabilities(ptr);
+            assertEquals(expected.keySet(), actual.keySet());
+            // The sums can be done in a different order, so the last bits may differ.
+            for (Map.Entry<String, Double> e : expected.entrySet()) {
+                assertEquals(e.getValue(), actual.get(e.getKey()), 1e-12 * Math.max(1, Math.abs(e.getValue())));
+            }
+        });
+    }
+}
@@ -0,0 +1,379 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import TriesWithFrequencies.TrieFunctions.Pair;
+
+//! @description The recursive implementations of trie functions that were replaced by iterative ones.
+//! @details Used as references in the tests; the code is as it was before the rewrite (apart from generics).
+class RecursiveTrieFunctions {
+
+    static String toStringRec( Trie tr, int n ) {
+        String offset = "";
+        String childStr = "";
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            offset = offset + " ";
+        }
+        if (tr.getChildren() != null && !tr.getChildren().isEmpty()) {
+            for (Trie elem : tr.getChildren().values()) {
+                if (k == 0) {
+                    childStr = "\n" + offset + toStringRec(elem, n + 1);
+                } else {
+                    childStr = childStr + ",\n" + offset + toStringRec(elem, n + 1);
+                }
+                k++;
+            }
+        } else {
+            childStr = "";
+        }
+        return "[ key=" + tr.getKey() + ", value=" + tr.getValue() + ", children=" + childStr + "]";
+    }
+
+    static String toString( Trie tr ) {
+        return toStringRec(tr, 1);
+    }
+
+    static String toJSONRec( Trie tr, int maxLevel, int n ) {
+        String childStr = "";
+        int k = 0;
+        if (tr.getChildren() != null && (maxLevel < 0 || n <= maxLevel)) {
+            for (Trie elem : tr.getChildren().values()) {
+                if (k == 0) {
+                    childStr = toJSONRec(elem, maxLevel, n + 1);
+                } else {
+                    childStr = childStr + ", " + toJSONRec(elem, maxLevel, n + 1);
+                }
+                k++;
+            }
+            childStr = "[" + childStr + "]";
+        } else {
+            childStr = "[]";
+        }
+        return "{ \"key\":" + "\"" + tr.getKey() + "\"" + ", \"value\":" + tr.getValue() + ", \"children\":" + childStr + "}";
+    }
+
+    static String toJSON( Trie tr, int maxLevel ) {
+        return toJSONRec(tr, maxLevel, 1);
+    }
+
+    static Trie clone( Trie tr ) {
+        Trie res = new Trie();
+
+        res.setKey(tr.getKey());
+        res.setValue(tr.getValue());
+
+        if (!(tr.getChildren() == null || tr.getChildren().isEmpty())) {
+            Map<String, Trie> resChildren = new HashMap<>();
+            for (Trie elem : tr.getChildren().values()) {
+                resChildren.put(elem.getKey(), clone(elem));
+            }
+            res.setChildren(resChildren);
+        }
+
+        return res;
+    }
+
+    static boolean equals( Trie tr1, Trie tr ) {
+        if (!tr1.getKey().equals(tr.getKey()) || !tr1.getValue().equals(tr.getValue())) {
+            return false;
+        }
+
+        boolean b = !(tr1.getChildren() == null || tr1.getChildren().isEmpty());
+        boolean bTr = !(tr.getChildren() == null || tr.getChildren().isEmpty());
+
+        if (b && bTr) {
+            if (tr1.getChildren().size() != tr.getChildren().size()) {
+                return false;
+            }
+            for (Trie elem : tr1.getChildren().values()) {
+                if (!tr.getChildren().containsKey(elem.getKey())) {
+                    return false;
+                }
+                if (!equals(elem, tr.getChildren().get(elem.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        return b == bTr;
+    }
+
+    static Trie merge( Trie tr1, Trie tr2 ) {
+        Trie res = new Trie();
+        res.setChildren(new HashMap<>());
+
+        if (tr1 == null) {
+            return tr2;
+        } else if (tr2 == null) {
+            return tr1;
+        } else if (!tr1.getKey().equals(tr2.getKey())) {
+            res.getChildren().putAll(tr1.getChildren());
+            res.getChildren().putAll(tr2.getChildren());
+            return res;
+        }
+
+        if (tr1.getChildren() == null) {
+            tr2.setValue(tr1.getValue() + tr2.getValue());
+            return tr2;
+        } else if (tr2.getChildren() == null) {
+            tr1.setValue(tr1.getValue() + tr2.getValue());
+            return tr1;
+        }
+
+        res.setKey(tr1.getKey());
+        res.setValue(tr1.getValue() + tr2.getValue());
+
+        for (Map.Entry<String, Trie> elem1 : tr1.getChildren().entrySet()) {
+            if (tr2.getChildren().get(elem1.getKey()) == null) {
+                res.getChildren().put(elem1.getKey(), elem1.getValue());
+            } else {
+                res.getChildren().put(elem1.getKey(), merge(elem1.getValue(), tr2.getChildren().get(elem1.getKey())));
+            }
+        }
+
+        for (Map.Entry<String, Trie> elem2 : tr2.getChildren().entrySet()) {
+            if (tr1.getChildren().get(elem2.getKey()) == null) {
+                res.getChildren().put(elem2.getKey(), elem2.getValue());
+            }
+        }
+
+        return res;
+    }
+
+    static Trie nodeProbabilities( Trie tr ) {
+        Trie res = nodeProbabilitiesRec(tr);
+        res.setValue(1.0);
+        return res;
+    }
+
+    static Trie nodeProbabilitiesRec( Trie tr ) {
+        double chSum = 0;
+
+        if (tr.getChildren() == null || tr.getChildren().isEmpty()) {
+            return new Trie(tr.getKey(), tr.getValue());
+        }
+
+        if (tr.getValue() == 0) {
+            for (Trie ch : tr.getChildren().values()) {
+                chSum += ch.getValue();
+            }
+        } else {
+            chSum = tr.getValue();
+        }
+
+        Map<String, Trie> resChildren = new HashMap<>();
+
+        for (Map.Entry<String, Trie> elem : tr.getChildren().entrySet()) {
+            Trie chNode = nodeProbabilitiesRec(elem.getValue());
+            chNode.setValue(chNode.getValue() / chSum);
+            resChildren.put(elem.getKey(), chNode);
+        }
+
+        return new Trie(tr.getKey(), tr.getValue(), resChildren);
+    }
+
+    static void toRows( List<List<Map.Entry<String, Double>>> rows, Trie tr, List<Map.Entry<String, Double>> path ) {
+        List<Map.Entry<String, Double>> currentPath = new ArrayList<>(path);
+        currentPath.add(new Pair<>(tr.getKey(), tr.getValue()));
+
+        if (tr.getChildren() == null || tr.getChildren().isEmpty()) {
+            rows.add(currentPath);
+        } else {
+            double sum = 0;
+            for (Trie ch : tr.getChildren().values()) {
+                sum += ch.getValue();
+            }
+
+            if (tr.getValue() >= 1.0 && sum < tr.getValue() ||
+                    tr.getValue() < 1.0 && sum + 2.0d * Math.ulp(sum) < 1.0d) {
+                rows.add(currentPath);
+            }
+
+            for (Trie ch : tr.getChildren().values()) {
+                toRows(rows, ch, currentPath);
+            }
+        }
+    }
+
+    static List<List<Map.Entry<String, Double>>> rootToLeafPaths( Trie tr ) {
+        List<List<Map.Entry<String, Double>>> rows = new ArrayList<>();
+        toRows(rows, tr, new ArrayList<>());
+        return rows;
+    }
+
+    static Map<String, Double> leafProbabilities( Trie tr ) {
+        Map<String, Double> res = new HashMap<>();
+        for (Pair<String, Double> p : leafProbabilitiesRec(tr)) {
+            res.merge(p.getKey(), p.getValue(), Double::sum);
+        }
+        return res;
+    }
+
+    static List<Pair<String, Double>> leafProbabilitiesRec( Trie tr ) {
+        List<Pair<String, Double>> res = new ArrayList<>();
+
+        if (tr.getChildren() == null || tr.getChildren().size() == 0) {
+            res.add(new Pair<>(tr.getKey(), tr.getValue()));
+            return res;
+        }
+
+        double chSum = 0.0;
+        for (Trie ch : tr.getChildren().values()) {
+            chSum += ch.getValue();
+            res.addAll(leafProbabilitiesRec(ch));
+        }
+
+        if (chSum < 1.0 && tr.getKey() != null) {
+            res.add(new Pair<>(tr.getKey(), (1 - chSum)));
+        }
+
+        List<Pair<String, Double>> res2 = new ArrayList<>();
+        for (Pair<String, Double> elem : res) {
+            res2.add(new Pair<>(elem.getKey(), elem.getValue() * tr.getValue()));
+        }
+        return res2;
+    }
+
+    static boolean leafQ( Trie tr ) {
+        return tr.getChildren() == null || tr.getChildren().isEmpty();
+    }
+
+    static Trie shrinkRec( Trie tr, String delimiter, double threshold, boolean internalOnly, int n ) {
+        Trie trRes = new Trie();
+        boolean rootQ = n == 0 && tr.getKey().equals("");
+
+        if (tr.getChildren() == null || tr.getChildren().isEmpty()) {
+            return tr;
+        } else if (!rootQ && tr.getChildren().size() == 1) {
+            List<Trie> arr = new ArrayList<>(tr.getChildren().values());
+            boolean shrinkQ;
+
+            if (threshold < 0 && tr.getValue() >= 1.0 && arr.get(0).getValue() >= 1.0) {
+                shrinkQ = tr.getValue().equals(arr.get(0).getValue());
+            } else if (threshold < 0) {
+                shrinkQ = arr.get(0).getValue() == 1.0;
+            } else {
+                shrinkQ = arr.get(0).getValue() >= threshold;
+            }
+
+            Trie chTr = shrinkRec(arr.get(0), delimiter, threshold, internalOnly, n + 1);
+
+            if (shrinkQ && (!internalOnly || !leafQ(arr.get(0)))) {
+                trRes.setKey(tr.getKey() + delimiter + chTr.getKey());
+                trRes.setValue(tr.getValue());
+                if (!(chTr.getChildren() == null || chTr.getChildren().isEmpty())) {
+                    trRes.setChildren(chTr.getChildren());
+                }
+            } else {
+                trRes.setKey(tr.getKey());
+                trRes.setValue(tr.getValue());
+                trRes.setChildren(new HashMap<>());
+                trRes.getChildren().put(chTr.getKey(), chTr);
+            }
+
+            return trRes;
+        } else {
+            Map<String, Trie> recChildren = new HashMap<>();
+            for (Trie chTr : tr.getChildren().values()) {
+                Trie nTr = shrinkRec(chTr, delimiter, threshold, internalOnly, n + 1);
+                recChildren.put(nTr.getKey(), nTr);
+            }
+
+            trRes.setKey(tr.getKey());
+            trRes.setValue(tr.getValue());
+            trRes.setChildren(recChildren);
+
+            return trRes;
+        }
+    }
+
+    static Trie map( Trie tr, TrieFunctions.TrieKeyValueFunction func ) {
+        if (tr.getChildren() == null || tr.getChildren().isEmpty()) {
+            Pair<String, Double> pres = func.apply(tr.getKey(), tr.getValue());
+            return new Trie(pres.getKey(), pres.getValue());
+        }
+
+        Map<String, Trie> resChildren = new HashMap<>();
+        for (Map.Entry<String, Trie> elem : tr.getChildren().entrySet()) {
+            resChildren.put(elem.getKey(), map(elem.getValue(), func));
+        }
+
+        Pair<String, Double> pres = func.apply(tr.getKey(), tr.getValue());
+        return new Trie(pres.getKey(), pres.getValue(), resChildren);
+    }
+
+    static Trie map( Trie tr, TrieFunctions.TrieNodeFunction preFunc, TrieFunctions.TrieNodeFunction postFunc ) {
+        Trie res = preFunc != null ? preFunc.apply(tr) : tr;
+        Map<String, Trie> resChildren = null;
+
+        if (!(res.getChildren() == null || res.getChildren().isEmpty())) {
+            resChildren = new HashMap<>();
+            for (Map.Entry<String, Trie> elem : res.getChildren().entrySet()) {
+                resChildren.put(elem.getKey(), map(elem.getValue(), preFunc, postFunc));
+            }
+        }
+
+        if (postFunc != null) {
+            res = postFunc.apply(res);
+        }
+
+        res.setChildren(resChildren);
+
+        return res;
+    }
+
+    static Trie pruneRec( Trie tr, int maxLevel, int n ) {
+        if (tr.getChildren() != null && !tr.getChildren().isEmpty() && (maxLevel < 0 || n < maxLevel)) {
+            Map<String, Trie> resChildren = new HashMap<>();
+            for (Trie elem : tr.getChildren().values()) {
+                resChildren.put(elem.getKey(), pruneRec(elem, maxLevel, n + 1));
+            }
+
+            Trie res = new Trie(tr.getKey(), tr.getValue());
+            res.setChildren(resChildren);
+            return res;
+        }
+        return new Trie(tr.getKey(), tr.getValue());
+    }
+
+    static Trie prune( Trie tr, int maxLevel ) {
+        return pruneRec(tr, maxLevel, 0);
+    }
+}
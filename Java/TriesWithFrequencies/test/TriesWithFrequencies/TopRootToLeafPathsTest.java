@@ -0,0 +1,86 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//! @description Checks of the top root-to-leaf paths functions.
+public class TopRootToLeafPathsTest {
+
+    static List<Double> probabilities( List<Map.Entry<List<String>, Double>> paths ) {
+        List<Double> res = new ArrayList<>();
+        for (Map.Entry<List<String>, Double> p : paths) {
+            res.add(p.getValue());
+        }
+        return res;
+    }
+
+    @Test
+    public void fewerPathsThanK() {
+        Trie tr = TrieFunctions.createBySplit(Arrays.asList("a;b", "a;c", "d"), ";");
+
+        assertEquals(3, TrieFunctions.topRootToLeafPaths(tr, 10).size());
+        assertEquals(3, TrieFunctions.topRootToLeafPaths(TrieFunctions.nodeProbabilities(tr), 10).size());
+    }
+
+    @Test
+    public void bestFirstMatchesFullSort() {
+        Random rnd = new Random(12);
+
+        for (int k = 0; k < 200; k++) {
+            Trie tr = TrieFunctions.nodeProbabilities(
+                    TrieFunctions.create(TrieReductionTest.randomWords(rnd, 5 + rnd.nextInt(200), 2 + rnd.nextInt(6), 8)));
+            int n = 1 + rnd.nextInt(20);
+
+            List<Map.Entry<List<String>, Double>> all =
+                    TrieFunctions.pathsToWordsWithProbabilities(TrieFunctions.rootToLeafPaths(tr));
+            all.sort(( a, b ) -> Double.compare(b.getValue(), a.getValue()));
+
+            List<Double> expected = probabilities(all.subList(0, Math.min(n, all.size())));
+            List<Double> actual = probabilities(TrieFunctions.topRootToLeafPaths(tr, n));
+
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), actual.get(i), 1e-12);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//! @description Checks that the reduction pipelines give the same tries as the corresponding TrieFunctions calls.
+public class TrieReductionTest {
+
+    //! @description Random words over a small alphabet, so the tries have many ties of whole counts.
+    static List<List<String>> randomWords( Random rnd, int n, int alphabet, int maxLength ) {
+        List<List<String>> res = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int len = 1 + rnd.nextInt(maxLength);
+            List<String> w = new ArrayList<>(len);
+            for (int j = 0; j < len; j++) {
+                w.add(String.valueOf((char) ('a' + rnd.nextInt(alphabet))));
+            }
+            res.add(w);
+        }
+        return res;
+    }
+
+    @Test
+    public void pipelineEqualsSequentialCalls() {
+        Random rnd = new Random(17);
+
+        for (int k = 0; k < 3000; k++) {
+            Trie tr = TrieFunctions.create(randomWords(rnd, 5 + rnd.nextInt(60), 2 + rnd.nextInt(6), 6));
+            double threshold = 1 + rnd.nextInt(3);
+            double paretoFraction = 0.3 + 0.6 * rnd.nextDouble();
+            int maxLevel = 1 + rnd.nextInt(5);
+
+            Trie expected = TrieFunctions.removeByThreshold(tr.clone(), threshold, true, "T");
+            expected = TrieFunctions.removeByKeyRegex(expected, "[ab]", "R");
+            expected = TrieFunctions.removeByParetoFraction(expected, paretoFraction, true, "P");
+            expected = TrieFunctions.prune(expected, maxLevel);
+
+            Trie actual = new TrieReduction()
+                    .removeByThreshold(threshold, true, "T")
+                    .removeByKeyRegex("[ab]", "R")
+                    .removeByParetoFraction(paretoFraction, true, "P")
+                    .prune(maxLevel)
+                    .apply(tr)
+                    .getTrie();
+
+            assertTrue(expected.equals(actual), "pipeline " + k + ": " + expected.toJSON() + " vs " + actual.toJSON());
+        }
+    }
+
+    @Test
+    public void paretoTiesAreBrokenByKey() {
+        List<List<String>> words = new ArrayList<>();
+        for (String s : new String[]{"a", "b", "c", "d"}) {
+            words.add(List.of(s));
+        }
+        Trie tr = TrieFunctions.create(words);
+
+        Trie res = TrieFunctions.removeByParetoFraction(tr, 0.5, true, null);
+        assertEquals(List.of(List.of(""), List.of("", "a"), List.of("", "b"), List.of("", "c")), sorted(TrieFunctions.getWords(res)));
+
+        Trie pres = new TrieReduction().removeByParetoFraction(0.5, true, null).apply(tr).getTrie();
+        assertTrue(res.equals(pres));
+    }
+
+    static List<List<String>> sorted( List<List<String>> words ) {
+        List<List<String>> res = new ArrayList<>(words);
+        res.sort(( a, b ) -> String.join(" ", a).compareTo(String.join(" ", b)));
+        return res;
+    }
+}
@@ -0,0 +1,128 @@
+//# Tries with frequencies Java implementation
+//# Copyright (C) 2016  Anton Antonov
+//#
+//# This program is free software: you can redistribute it and/or modify
+//# it under the terms of the GNU General Public License as published by
+//# the Free Software Foundation, either version 3 of the License, or
+//# (at your option) any later version.
+//#
+//# This program is distributed in the hope that it will be useful,
+//# but WITHOUT ANY WARRANTY; without even the implied warranty of
+//# MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//# GNU General Public License for more details.
+//#
+//# You should have received a copy of the GNU General Public License
+//# along with this program.  If not, see <http://www.gnu.org/licenses/>.
+//#
+//# Written by Anton Antonov,
+//# antononcube @ gmail. com ,
+//# Windermere, Florida, USA.
+//#
+//# Version 1.0
+//# The Java code in this file corresponds to the Mathematica package
+//# "Tries with frequencies" also written by Anton Antonov:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/TriesWithFrequencies.m .
+//# There is also an R package with implementing that functionality:
+//# https://github.com/antononcube/MathematicaForPrediction/blob/master/R/TriesWithFrequencies.R .
+//# Both packages are part of the MathematicaForPrediction project at GitHub.
+//#
+//# For detailed explanations see the blog post:
+//# "Tries with frequencies for data mining",
+//# https://mathematicaforprediction.wordpress.com/2013/12/06/tries-with-frequencies-for-data-mining/ .
+
+package TriesWithFrequencies;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//! @description Checks that snapshots are read back and that malformed snapshots are rejected.
+public class TrieSnapshotTest {
+
+    //! @description A node of a hand-made snapshot.
+    static int[] node( int keyIndex, int childCount ) {
+        return new int[]{keyIndex, childCount};
+    }
+
+    //! @description Makes a snapshot with given symbols, node count, and nodes (all with the value 1).
+    static byte[] snapshot( List<String> symbols, long nodeCount, int[]... nodes ) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TrieSnapshot.Output out = new TrieSnapshot.Output(Channels.newChannel(bytes));
+        TrieSnapshot.writeHeader(out, symbols, nodeCount);
+        for (int[] nd : nodes) {
+            TrieSnapshot.writeNode(out, nd[0], true, 1.0, nd[1]);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static Trie readTrie( byte[] bytes ) throws IOException {
+        return TrieSnapshot.readTrie(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    static FrozenTrie readFrozenTrie( byte[] bytes ) throws IOException {
+        return TrieSnapshot.readFrozenTrie(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    static void assertRejected( byte[] bytes ) {
+        assertThrows(IOException.class, () -> readTrie(bytes));
+        assertThrows(IOException.class, () -> readFrozenTrie(bytes));
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        Trie tr = TrieFunctions.createBySplit(Arrays.asList("a;r;m", "a;r;m;s", "a;r;c", "b;a;r"), ";");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TrieSnapshot.write(tr, Channels.newChannel(bytes));
+
+        assertTrue(tr.equals(readTrie(bytes.toByteArray())));
+        assertTrue(tr.equals(readFrozenTrie(bytes.toByteArray()).toTrie()));
+    }
+
+    @Test
+    public void validHandMadeSnapshot() throws IOException {
+        byte[] bytes = snapshot(List.of("", "a", "b"), 3, node(0, 2), node(1, 0), node(2, 0));
+        assertTrue(readTrie(bytes).equals(readFrozenTrie(bytes).toTrie()));
+    }
+
+    @Test
+    public void rejectsZeroNodes() throws IOException {
+        assertRejected(snapshot(List.of(""), 0));
+    }
+
+    @Test
+    public void rejectsKeyIndexOutOfRange() throws IOException {
+        assertRejected(snapshot(List.of("", "a"), 2, node(0, 1), node(2, 0)));
+    }
+
+    @Test
+    public void rejectsNodesAfterTheRootSubTrie() throws IOException {
+        assertRejected(snapshot(List.of("", "a"), 3, node(0, 1), node(1, 0), node(1, 0)));
+    }
+
+    @Test
+    public void rejectsMissingNodes() throws IOException {
+        assertRejected(snapshot(List.of("", "a", "b"), 2, node(0, 2), node(1, 0)));
+    }
+
+    @Test
+    public void rejectsTruncatedSnapshots() throws IOException {
+        byte[] bytes = snapshot(List.of("", "a", "b"), 3, node(0, 2), node(1, 0), node(2, 0));
+        assertRejected(Arrays.copyOf(bytes, bytes.length - 3));
+    }
+
+    @Test
+    public void rejectsChildrenOutOfKeyOrder() throws IOException {
+        assertRejected(snapshot(List.of("", "a", "b"), 3, node(0, 2), node(2, 0), node(1, 0)));
+        assertRejected(snapshot(List.of("", "a"), 3, node(0, 2), node(1, 0), node(1, 0)));
+    }
+}
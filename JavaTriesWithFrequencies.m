@@ -299,10 +299,7 @@ JavaTrieLeafProbabilities[jTr_?JavaObjectQ, opts:OptionsPattern[]] :=
 (*JavaTrieLeafProbabilitiesSimple[jTr_?JavaObjectQ]:=*)
 (*    ImportString[ StringReplace[ TrieFunctions`leafProbabilitiesJSON[jTr], "\"\"\"" -> "\"\\\"\""], "JSON"];*)
 JavaTrieLeafProbabilitiesSimple[jTr_?JavaObjectQ]:=
-    Block[{str},
-      str = StringReplace[ TrieFunctions`leafProbabilitiesJSON[jTr], "\"\"\"" -> "\"\\\"\""];
-      ImportString[ FromCharacterCode@ToCharacterCode[str, "UTF-8"], "RawJSON"]
-    ];
+    ImportString[ FromCharacterCode@ToCharacterCode[TrieFunctions`leafProbabilitiesJSON[jTr], "UTF-8"], "RawJSON"];
 
 Clear[JavaTrieNodeCounts];
 JavaTrieNodeCounts[jTr_?JavaObjectQ] :=